@@ -0,0 +1,138 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed-loop load test of {@code GET /v1/temperatures/{city}} against a running instance. For every
+ * concurrency level it keeps that many requests in flight, each on its own connection, until the given
+ * number of requests completed, and prints throughput and latency percentiles. Run it once against an
+ * instance started with {@code temperature.serving.mode=platform} and once with {@code virtual} to compare
+ * the two modes.
+ *
+ * <pre>
+ * java -cp ... com.example.demo.benchmark.LoadTest http://localhost:8080 [concurrency,...] [requests]
+ * </pre>
+ */
+public final class LoadTest {
+
+	private static final int MAX_CITIES = 10_000;
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(TIMEOUT)
+			.build();
+
+	private final String baseUrl;
+
+	private final List<URI> cityUris;
+
+	private LoadTest(String baseUrl) throws IOException, InterruptedException {
+		this.baseUrl = baseUrl;
+		this.cityUris = cities().stream()
+				.map(city -> URLEncoder.encode(city, StandardCharsets.UTF_8).replace("+", "%20"))
+				.map(city -> URI.create(baseUrl + "/v1/temperatures/" + city))
+				.toList();
+		if (cityUris.isEmpty()) {
+			throw new IllegalStateException("Instance " + baseUrl + " has no cities loaded");
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: LoadTest <base URL> [concurrency levels, e.g. 1000,5000,10000] [requests per level]");
+			System.exit(1);
+		}
+		final int[] levels = Arrays.stream((args.length > 1 ? args[1] : "1000,2500,5000,10000").split(","))
+				.mapToInt(Integer::parseInt)
+				.toArray();
+		final int requests = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+		final var loadTest = new LoadTest(args[0]);
+		loadTest.run(Math.min(levels[0], 100), Math.min(requests, 20_000)); // warm-up
+		System.out.printf("%12s %10s %8s %12s %10s %10s %10s%n", "concurrency", "requests", "errors", "requests/s", "p50 ms",
+				"p99 ms", "max ms");
+		for (int concurrency : levels) {
+			final Result result = loadTest.run(concurrency, requests);
+			System.out.printf("%12d %10d %8d %12.0f %10.2f %10.2f %10.2f%n", concurrency, requests, result.errors(),
+					result.throughput(), result.percentile(0.50), result.percentile(0.99), result.percentile(1.0));
+		}
+	}
+
+	private Result run(int concurrency, int requests) throws InterruptedException {
+		final Semaphore inFlight = new Semaphore(concurrency);
+		final CountDownLatch done = new CountDownLatch(requests);
+		final long[] latencies = new long[requests];
+		final AtomicInteger completed = new AtomicInteger();
+		final AtomicLong errors = new AtomicLong();
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			inFlight.acquire();
+			final HttpRequest request = HttpRequest.newBuilder(cityUris.get(i % cityUris.size())).timeout(TIMEOUT).GET().build();
+			final long sent = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+				latencies[completed.getAndIncrement()] = System.nanoTime() - sent;
+				if (failure != null || response.statusCode() != 200) {
+					errors.incrementAndGet();
+				}
+				inFlight.release();
+				done.countDown();
+			});
+		}
+		done.await();
+		final long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		return new Result(latencies, errors.get(), requests / (elapsed / 1e9));
+	}
+
+	private List<String> cities() throws IOException, InterruptedException {
+		final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/temperatures"))
+				.header("Accept", "application/x-ndjson")
+				.timeout(TIMEOUT)
+				.build();
+		final HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Instance " + baseUrl + " answered " + response.statusCode());
+		}
+		final ObjectMapper objectMapper = new ObjectMapper();
+		try (Stream<String> lines = response.body()) {
+			return lines.limit(MAX_CITIES)
+					.map(line -> {
+						try {
+							return objectMapper.readTree(line).get("city").asText();
+						} catch (IOException e) {
+							throw new IllegalStateException("Unexpected line " + line, e);
+						}
+					})
+					.toList();
+		}
+	}
+
+	// Latencies sorted ascending, in nanoseconds
+	private record Result(long[] latencies, long errors, double throughput) {
+
+		double percentile(double quantile) {
+			final int index = (int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1);
+			return latencies[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+	}
+}
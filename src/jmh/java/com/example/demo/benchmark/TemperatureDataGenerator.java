@@ -0,0 +1,151 @@
+package com.example.demo.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import com.example.demo.utils.Constants;
+
+/**
+ * Generates {@code city;yyyy-MM-dd HH:mm:ss.SSS;temp} files for the benchmarks. The output only depends on
+ * the arguments, so results can be reproduced on any machine.
+ *
+ * <pre>
+ * java -cp ... com.example.demo.benchmark.TemperatureDataGenerator out.csv 1GB [cities] [firstYear] [years] [seed]
+ * </pre>
+ */
+public final class TemperatureDataGenerator {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final int cities;
+
+	private final int firstYear;
+
+	private final int years;
+
+	private final long seed;
+
+	public TemperatureDataGenerator(int cities, int firstYear, int years, long seed) {
+		this.cities = cities;
+		this.firstYear = firstYear;
+		this.years = years;
+		this.seed = seed;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: TemperatureDataGenerator <file> <size, e.g. 100MB or 2GB> [cities] [firstYear] [years] [seed]");
+			System.exit(1);
+		}
+		final var generator = new TemperatureDataGenerator(
+				args.length > 2 ? Integer.parseInt(args[2]) : 1000,
+				args.length > 3 ? Integer.parseInt(args[3]) : 2000,
+				args.length > 4 ? Integer.parseInt(args[4]) : 25,
+				args.length > 5 ? Long.parseLong(args[5]) : 42);
+		generator.writeFile(Path.of(args[0]), parseSize(args[1]));
+	}
+
+	/**
+	 * Writes lines until the file is at least {@code sizeBytes} long.
+	 */
+	public void writeFile(Path file, long sizeBytes) throws IOException {
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE)) {
+			final var random = new SplittableRandom(seed);
+			final byte[][] cityNames = cityNames();
+			final byte[] line = new byte[256];
+			long written = 0;
+			while (written < sizeBytes) {
+				final int length = writeLine(line, cityNames[random.nextInt(cityNames.length)], random);
+				output.write(line, 0, length);
+				written += length;
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code count} lines as one block, for benchmarks working on memory.
+	 */
+	public byte[] lines(int count) {
+		final var random = new SplittableRandom(seed);
+		final byte[][] cityNames = cityNames();
+		final byte[] line = new byte[256];
+		final var output = new ByteArrayOutputStream(count * 40);
+		for (int i = 0; i < count; i++) {
+			output.write(line, 0, writeLine(line, cityNames[random.nextInt(cityNames.length)], random));
+		}
+		return output.toByteArray();
+	}
+
+	public String cityName(int index) {
+		return "City" + index;
+	}
+
+	private byte[][] cityNames() {
+		final byte[][] names = new byte[cities][];
+		for (int i = 0; i < cities; i++) {
+			names[i] = cityName(i).getBytes(StandardCharsets.UTF_8);
+		}
+		return names;
+	}
+
+	private int writeLine(byte[] line, byte[] city, SplittableRandom random) {
+		System.arraycopy(city, 0, line, 0, city.length);
+		int position = city.length;
+		line[position++] = (byte) Constants.DELIMITER.charAt(0);
+		position = writeDigits(line, position, firstYear + random.nextInt(years), 4);
+		line[position++] = '-';
+		position = writeDigits(line, position, 1 + random.nextInt(12), 2);
+		line[position++] = '-';
+		position = writeDigits(line, position, 1 + random.nextInt(28), 2);
+		line[position++] = ' ';
+		position = writeDigits(line, position, random.nextInt(24), 2);
+		line[position++] = ':';
+		position = writeDigits(line, position, random.nextInt(60), 2);
+		line[position++] = ':';
+		position = writeDigits(line, position, random.nextInt(60), 2);
+		line[position++] = '.';
+		position = writeDigits(line, position, random.nextInt(1000), 3);
+		line[position++] = (byte) Constants.DELIMITER.charAt(0);
+
+		final int hundredths = random.nextInt(-4000, 5000);
+		if (hundredths < 0) {
+			line[position++] = '-';
+		}
+		final int absolute = Math.abs(hundredths);
+		final String integer = Integer.toString(absolute / 100);
+		for (int i = 0; i < integer.length(); i++) {
+			line[position++] = (byte) integer.charAt(i);
+		}
+		line[position++] = '.';
+		position = writeDigits(line, position, absolute % 100, 2);
+		line[position++] = '\n';
+		return position;
+	}
+
+	private static int writeDigits(byte[] line, int position, int value, int width) {
+		for (int i = width - 1; i >= 0; i--) {
+			line[position + i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		return position + width;
+	}
+
+	public static long parseSize(String size) {
+		final String normalized = size.trim().toUpperCase();
+		if (normalized.endsWith("GB")) {
+			return Long.parseLong(normalized.substring(0, normalized.length() - 2)) << 30;
+		}
+		if (normalized.endsWith("MB")) {
+			return Long.parseLong(normalized.substring(0, normalized.length() - 2)) << 20;
+		}
+		if (normalized.endsWith("KB")) {
+			return Long.parseLong(normalized.substring(0, normalized.length() - 2)) << 10;
+		}
+		return Long.parseLong(normalized);
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.demo.temperature;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.example.demo.benchmark.TemperatureDataGenerator;
+import com.example.demo.utils.parser.TemperatureLineParser;
+
+/**
+ * Parsing throughput of in-memory chunks into {@link TemperatureAggregates}, including the monthly, daily and
+ * percentile aggregation a refresh does per reading and the digest compaction before publishing. The
+ * difference to {@code TemperatureLineParserBenchmark.parseChunk} is the cost of aggregating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemperatureAggregatesBenchmark {
+
+	private static final int LINES = 100_000;
+
+	@Param({"100", "10000"})
+	private int cities;
+
+	// A single year puts a thousand readings into each digest of 100 cities, 25 years only a few dozen
+	@Param({"1", "25"})
+	private int years;
+
+	private ByteBuffer chunk;
+
+	@Setup
+	public void setUp() {
+		final byte[] lines = new TemperatureDataGenerator(cities, 2000, years, 42).lines(LINES);
+		chunk = ByteBuffer.allocateDirect(lines.length).put(lines).flip();
+	}
+
+	/**
+	 * Operations per second are chunks of {@value #LINES} lines.
+	 */
+	@Benchmark
+	public TemperatureAggregates parseAndAggregate() {
+		final TemperatureAggregates aggregates = new TemperatureAggregates();
+		TemperatureLineParser.parseChunk(chunk.duplicate(), aggregates);
+		aggregates.compactDigests();
+		return aggregates;
+	}
+}
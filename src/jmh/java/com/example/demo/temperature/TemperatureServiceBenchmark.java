@@ -0,0 +1,92 @@
+package com.example.demo.temperature;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.demo.benchmark.TemperatureDataGenerator;
+import com.example.demo.utils.parser.TemperatureLineParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Ingestion and query paths of {@link TemperatureService}, including its result cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemperatureServiceBenchmark {
+
+	private static final int LINES = 1_000_000;
+
+	@Param({"100", "10000"})
+	private int cities;
+
+	private TemperatureService temperatureService;
+
+	private TemperatureResultCache resultCache;
+
+	private TemperatureAggregates aggregates;
+
+	private String city;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		resultCache = new TemperatureResultCache(new SimpleMeterRegistry(), new ObjectMapper());
+		ReflectionTestUtils.setField(resultCache, "spec", "recordStats");
+		ReflectionTestUtils.setField(resultCache, "maxWeight", 1000000L);
+		ReflectionTestUtils.setField(resultCache, "warmUpSize", 1000);
+		resultCache.init();
+		temperatureService = new TemperatureServiceImpl(resultCache);
+
+		final var generator = new TemperatureDataGenerator(cities, 2000, 25, 42);
+		aggregates = new TemperatureAggregates();
+		TemperatureLineParser.parseChunk(ByteBuffer.wrap(generator.lines(LINES)), aggregates);
+		temperatureService.replaceCityTemperatureData(aggregates);
+		city = generator.cityName(cities / 2);
+	}
+
+	@Benchmark
+	public TemperatureSnapshot updateCityTemperatureData() {
+		temperatureService.updateCityTemperatureData(aggregates);
+		return temperatureService.currentSnapshot();
+	}
+
+	@Benchmark
+	public List<TemperatureResult> getYearlyAverageTemperatureWarm() {
+		return temperatureService.getYearlyAverageTemperature(city);
+	}
+
+	@Benchmark
+	public List<TemperatureResult> getYearlyAverageTemperatureCold(ColdCache coldCache) {
+		return temperatureService.getYearlyAverageTemperature(city);
+	}
+
+	/**
+	 * Drops the cached results before every call.
+	 */
+	@State(Scope.Thread)
+	public static class ColdCache {
+
+		@Setup(Level.Invocation)
+		public void clear(TemperatureServiceBenchmark benchmark) {
+			ReflectionTestUtils.setField(benchmark.resultCache, "warmUpSize", 0);
+			benchmark.resultCache.warmUp(benchmark.temperatureService.currentSnapshot());
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.demo.utils.filereader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.demo.benchmark.TemperatureDataGenerator;
+
+/**
+ * Time to hand a generated file to the chunk consumer, without parsing it. The {@code compressed} reader
+ * reads a gzip copy of the file. Run with {@code -p fileSize=2GB} for larger files; the file is generated
+ * once per fork in the temp directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileReaderBenchmark {
+
+	@Param({"100MB"})
+	private String fileSize;
+
+	@Param({"mapped", "buffered", "compressed"})
+	private String reader;
+
+	private Path file;
+
+	private FileReaderStrategy fileReader;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = Files.createTempFile("temperatures", ".csv");
+		new TemperatureDataGenerator(1000, 2000, 25, 42).writeFile(file, TemperatureDataGenerator.parseSize(fileSize));
+
+		final var resourceLoader = new DefaultResourceLoader();
+		if (FileReaderSelection.COMPRESSED.equals(reader)) {
+			file = gzip(file);
+			fileReader = new CompressedCSVFileReader(resourceLoader);
+		} else {
+			fileReader = FileReaderSelection.MAPPED.equals(reader) ? new MappedCSVFileReader(resourceLoader) : new CSVFileReader(resourceLoader);
+		}
+		ReflectionTestUtils.setField(fileReader, "filePath", file.toUri().toString());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	private static Path gzip(Path plain) throws IOException {
+		final Path compressed = Files.createTempFile("temperatures", ".csv.gz");
+		try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(compressed), 1 << 16)) {
+			Files.copy(plain, output);
+		}
+		Files.delete(plain);
+		return compressed;
+	}
+
+	/**
+	 * Touches every page of each chunk, so the mapped reader is charged for faulting the file in.
+	 */
+	@Benchmark
+	public long readChunks() throws IOException {
+		final LongAdder checksum = new LongAdder();
+		fileReader.readChunks(chunk -> {
+			long sum = 0;
+			for (int i = chunk.position(); i < chunk.limit(); i += 4096) {
+				sum += chunk.get(i);
+			}
+			checksum.add(sum + chunk.remaining());
+		});
+		return checksum.sum();
+	}
+}
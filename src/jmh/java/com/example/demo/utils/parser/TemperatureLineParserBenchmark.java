@@ -0,0 +1,98 @@
+package com.example.demo.utils.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.example.demo.benchmark.TemperatureDataGenerator;
+import com.example.demo.utils.filereader.ColumnarFileConverter;
+
+/**
+ * Parsing throughput of in-memory chunks, without any aggregation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemperatureLineParserBenchmark {
+
+	private static final int LINES = 100_000;
+
+	@Param({"100", "10000"})
+	private int cities;
+
+	private ByteBuffer chunk;
+
+	private ByteBuffer columnarChunk;
+
+	private int firstLineEnd;
+
+	@Setup
+	public void setUp() throws IOException {
+		final byte[] lines = new TemperatureDataGenerator(cities, 2000, 25, 42).lines(LINES);
+		chunk = ByteBuffer.allocateDirect(lines.length).put(lines).flip();
+		while (chunk.get(firstLineEnd) != '\n') {
+			firstLineEnd++;
+		}
+		columnarChunk = columnar(lines);
+	}
+
+	// The same lines converted to the columnar format, without the file header
+	private static ByteBuffer columnar(byte[] lines) throws IOException {
+		final Path csv = Files.createTempFile("temperatures", ".csv");
+		final Path columnar = Files.createTempFile("temperatures", ".tcol");
+		try {
+			Files.write(csv, lines);
+			ColumnarFileConverter.convert(csv, columnar);
+			final byte[] blocks = Files.readAllBytes(columnar);
+			return ByteBuffer.allocateDirect(blocks.length).put(blocks).flip().position(ColumnarBlockParser.HEADER_SIZE);
+		} finally {
+			Files.deleteIfExists(csv);
+			Files.deleteIfExists(columnar);
+		}
+	}
+
+	/**
+	 * Operations per second are chunks of {@value #LINES} lines.
+	 */
+	@Benchmark
+	public ParsedChunk parseChunk(Blackhole blackhole) {
+		return TemperatureLineParser.parseChunk(chunk.duplicate(), consume(blackhole));
+	}
+
+	/**
+	 * The same chunk in the columnar binary format.
+	 */
+	@Benchmark
+	public ParsedChunk parseColumnarChunk(Blackhole blackhole) {
+		return ColumnarBlockParser.parseChunk(columnarChunk.duplicate(), consume(blackhole));
+	}
+
+	@Benchmark
+	public boolean parseLine(Blackhole blackhole) {
+		return TemperatureLineParser.parseLine(chunk, 0, firstLineEnd, consume(blackhole));
+	}
+
+	private static TemperatureRecordHandler consume(Blackhole blackhole) {
+		return (buffer, cityStart, cityEnd, year, month, day, temperatureHundredths) -> {
+			blackhole.consume(cityEnd - cityStart);
+			blackhole.consume(year);
+			blackhole.consume(temperatureHundredths);
+		};
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import java.util.Map;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Threads Tomcat handles requests on, set by {@code temperature.serving.mode}. {@code platform} keeps Tomcat's
+ * pool of platform threads, sized by {@code server.tomcat.threads.max}. {@code virtual} runs every request on
+ * a virtual thread of its own, so requests in progress are only bounded by {@code server.tomcat.max-connections}.
+ * The mode is mapped onto {@code spring.threads.virtual.enabled}, so Spring Boot creates the executor and shuts
+ * it down. Virtual threads require Java 21, and {@code virtual} on an older JVM fails the startup rather than
+ * quietly serving on platform threads.
+ */
+public class ServingModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+	static final String MODE_PROPERTY = "temperature.serving.mode";
+
+	static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+	static final String PLATFORM = "platform";
+
+	static final String VIRTUAL = "virtual";
+
+	private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+
+	@Override
+	public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+		final String mode = environment.getProperty(MODE_PROPERTY, PLATFORM);
+		if (!PLATFORM.equals(mode) && !VIRTUAL.equals(mode)) {
+			throw new IllegalArgumentException("Unknown " + MODE_PROPERTY + ": " + mode);
+		}
+		if (VIRTUAL.equals(mode) && Runtime.version().feature() < VIRTUAL_THREADS_JAVA_VERSION) {
+			throw new IllegalStateException(MODE_PROPERTY + "=" + VIRTUAL + " requires Java "
+					+ VIRTUAL_THREADS_JAVA_VERSION + ", this JVM is Java " + Runtime.version().feature());
+		}
+		environment.getPropertySources().addFirst(
+				new MapPropertySource(MODE_PROPERTY, Map.of(VIRTUAL_THREADS_PROPERTY, VIRTUAL.equals(mode))));
+	}
+}
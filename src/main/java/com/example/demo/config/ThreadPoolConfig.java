@@ -1,16 +1,61 @@
 package com.example.demo.config;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import com.example.demo.utils.Constants;
+import lombok.extern.log4j.Log4j2;
 
+@Log4j2
 @Configuration
 public class ThreadPoolConfig {
 
-	@Bean
+	static final String FORK_JOIN = "fork-join";
+
+	static final String VIRTUAL = "virtual";
+
+	@Value("${temperature.ingestion.executor:" + FORK_JOIN + "}")
+	private String executor;
+
+	@Value("${temperature.ingestion.parallelism:0}")
+	private int parallelism;
+
+	/**
+	 * Executor the parsing of file chunks is submitted to. {@code fork-join} is a work-stealing pool suited to
+	 * the CPU-bound parsing of local files, {@code virtual} starts a virtual thread per chunk for I/O-bound
+	 * sources and requires Java 21.
+	 */
+	@Bean(destroyMethod = "shutdownNow")
 	public ExecutorService temperatureExecutorService() {
-		return Executors.newFixedThreadPool(Constants.THREAD_POOL_SIZE);
+		if (VIRTUAL.equals(executor)) {
+			final ExecutorService virtualThreads = virtualThreadPerTaskExecutor();
+			if (virtualThreads != null) {
+				return virtualThreads;
+			}
+			log.warn("Virtual threads are not supported by this JVM, falling back to the {} executor", FORK_JOIN);
+		} else if (!FORK_JOIN.equals(executor)) {
+			throw new IllegalArgumentException("Unknown temperature.ingestion.executor: " + executor);
+		}
+		return Executors.newWorkStealingPool(parallelism());
+	}
+
+	int parallelism() {
+		return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
+	// Looked up reflectively so the application still runs on Java 17
+	private static ExecutorService virtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) MethodHandles.publicLookup()
+					.findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+					.invoke();
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Could not create the virtual thread executor", e);
+		}
 	}
 }
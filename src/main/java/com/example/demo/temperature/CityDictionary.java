@@ -0,0 +1,196 @@
+package com.example.demo.temperature;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps city names to dense int IDs in the order they are first seen. Lookups hash the raw UTF-8 bytes of
+ * the name, so a city read from the file is only decoded to a {@link String} the first time it appears.
+ * Open addressing with linear probing, kept at most half full. Not thread-safe for writing.
+ *
+ * <p>{@link #extend()} derives a dictionary that shares the arrays and appends new names past this one's size.
+ * Slots holding an ID at or past the size are treated as empty, so this dictionary keeps answering as before
+ * and can be read concurrently while the extended one is written.
+ */
+final class CityDictionary {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+
+	private static final int FNV_PRIME = 0x01000193;
+
+	static final int NOT_FOUND = -1;
+
+	// Slot holds id + 1, so 0 marks an empty slot
+	private int[] slots = new int[INITIAL_CAPACITY];
+
+	private int[] hashes = new int[INITIAL_CAPACITY / 2];
+
+	private byte[][] nameBytes = new byte[INITIAL_CAPACITY / 2][];
+
+	private String[] names = new String[INITIAL_CAPACITY / 2];
+
+	private int size;
+
+	/**
+	 * Returns a dictionary with the same IDs that shares the arrays of this one, so deriving it costs nothing
+	 * however many cities there are. Only the latest dictionary extended from this one may be written to.
+	 * An empty dictionary, such as the one of the shared empty snapshot, is never shared.
+	 */
+	CityDictionary extend() {
+		if (size == 0) {
+			return new CityDictionary();
+		}
+		final CityDictionary extended = new CityDictionary();
+		extended.slots = slots;
+		extended.hashes = hashes;
+		extended.nameBytes = nameBytes;
+		extended.names = names;
+		extended.size = size;
+		return extended;
+	}
+
+	int idOf(ByteBuffer buffer, int from, int to) {
+		final int hash = hash(buffer, from, to);
+		int slot = hash & (slots.length - 1);
+		int id;
+		while ((id = idAt(slot)) != NOT_FOUND) {
+			if (hashes[id] == hash && equals(nameBytes[id], buffer, from, to)) {
+				return id;
+			}
+			slot = (slot + 1) & (slots.length - 1);
+		}
+
+		final byte[] bytes = new byte[to - from];
+		buffer.get(from, bytes);
+		return insert(slot, hash, bytes, new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	int idOf(String city) {
+		final byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+		final int id = find(bytes);
+		if (id != NOT_FOUND) {
+			return id;
+		}
+		final int hash = hash(ByteBuffer.wrap(bytes), 0, bytes.length);
+		return insert(freeSlot(hash), hash, bytes, city);
+	}
+
+	/**
+	 * Returns the ID of the city, or {@link #NOT_FOUND} without adding it.
+	 */
+	int find(String city) {
+		return find(city.getBytes(StandardCharsets.UTF_8));
+	}
+
+	String name(int id) {
+		return names[id];
+	}
+
+	int size() {
+		return size;
+	}
+
+	List<String> names() {
+		return new AbstractList<>() {
+
+			@Override
+			public String get(int index) {
+				return names[index];
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Rough estimate of the heap held by the dictionary, including the names.
+	 */
+	long estimatedSizeBytes() {
+		long total = (long) slots.length * Integer.BYTES + (long) hashes.length * (Integer.BYTES + 2 * 4);
+		for (int id = 0; id < size; id++) {
+			// Two byte arrays (our copy and the one inside the String) plus the String object
+			total += 2 * (16L + nameBytes[id].length) + 24;
+		}
+		return total;
+	}
+
+	private int find(byte[] bytes) {
+		final int hash = hash(ByteBuffer.wrap(bytes), 0, bytes.length);
+		int slot = hash & (slots.length - 1);
+		int id;
+		while ((id = idAt(slot)) != NOT_FOUND) {
+			if (hashes[id] == hash && Arrays.equals(nameBytes[id], bytes)) {
+				return id;
+			}
+			slot = (slot + 1) & (slots.length - 1);
+		}
+		return NOT_FOUND;
+	}
+
+	private int freeSlot(int hash) {
+		int slot = hash & (slots.length - 1);
+		while (idAt(slot) != NOT_FOUND) {
+			slot = (slot + 1) & (slots.length - 1);
+		}
+		return slot;
+	}
+
+	// An ID at or past the size was added by an extended dictionary, so the slot counts as empty here
+	private int idAt(int slot) {
+		final int id = slots[slot] - 1;
+		return id < size ? id : NOT_FOUND;
+	}
+
+	private int insert(int slot, int hash, byte[] bytes, String name) {
+		final int id = size++;
+		if (id == hashes.length) {
+			hashes = Arrays.copyOf(hashes, id * 2);
+			nameBytes = Arrays.copyOf(nameBytes, id * 2);
+			names = Arrays.copyOf(names, id * 2);
+		}
+		hashes[id] = hash;
+		nameBytes[id] = bytes;
+		names[id] = name;
+		slots[slot] = id + 1;
+
+		if (size * 2 > slots.length) {
+			rehash();
+		}
+		return id;
+	}
+
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		for (int id = 0; id < size; id++) {
+			slots[freeSlot(hashes[id])] = id + 1;
+		}
+	}
+
+	static int hash(ByteBuffer buffer, int from, int to) {
+		int hash = FNV_OFFSET_BASIS;
+		for (int i = from; i < to; i++) {
+			hash = (hash ^ buffer.get(i)) * FNV_PRIME;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean equals(byte[] bytes, ByteBuffer buffer, int from, int to) {
+		if (bytes.length != to - from) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] != buffer.get(from + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.demo.temperature;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.demo.utils.parser.TemperatureRecordHandler;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Assigns every city to one of the instances listed in {@code temperature.partition.instances} by consistent
+ * hashing of the UTF-8 bytes of its name. Each instance is placed at {@link #POINTS_PER_INSTANCE} points of
+ * a hash ring and owns the cities hashing up to those points, so adding an instance only moves the cities it
+ * takes over. Without instances configured, this instance owns every city.
+ */
+@Component
+class CityPartitioner {
+
+	static final int POINTS_PER_INSTANCE = 128;
+
+	@Value("${temperature.partition.instances:}")
+	private List<String> instances;
+
+	@Value("${temperature.partition.index:0}")
+	private int index;
+
+	// Sorted hashes of the ring points and the instance each one belongs to
+	private int[] points;
+
+	private int[] owners;
+
+	@PostConstruct
+	void init() {
+		if (instances == null || instances.isEmpty()) {
+			return;
+		}
+		instances = instances.stream().map(String::strip).map(CityPartitioner::withoutTrailingSlash).toList();
+		if (index < 0 || index >= instances.size()) {
+			throw new IllegalArgumentException("temperature.partition.index must be between 0 and "
+					+ (instances.size() - 1) + ", got " + index);
+		}
+
+		// Hash in the upper half and instance in the lower half, so sorting orders the points by hash
+		final long[] ring = new long[instances.size() * POINTS_PER_INSTANCE];
+		for (int instance = 0; instance < instances.size(); instance++) {
+			for (int point = 0; point < POINTS_PER_INSTANCE; point++) {
+				final byte[] name = (instances.get(instance) + "#" + point).getBytes(StandardCharsets.UTF_8);
+				ring[instance * POINTS_PER_INSTANCE + point] = (long) hash(ByteBuffer.wrap(name), 0, name.length) << 32 | instance;
+			}
+		}
+		Arrays.sort(ring);
+
+		points = new int[ring.length];
+		owners = new int[ring.length];
+		for (int i = 0; i < ring.length; i++) {
+			points[i] = (int) (ring[i] >> 32);
+			owners[i] = (int) ring[i];
+		}
+	}
+
+	boolean isPartitioned() {
+		return points != null;
+	}
+
+	boolean owns(String city) {
+		final byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+		return owns(ByteBuffer.wrap(bytes), 0, bytes.length);
+	}
+
+	boolean owns(ByteBuffer buffer, int from, int to) {
+		return !isPartitioned() || ownerIndex(buffer, from, to) == index;
+	}
+
+	/**
+	 * Base URL of the instance that owns the city.
+	 */
+	String ownerOf(String city) {
+		final byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+		return instances.get(ownerIndex(ByteBuffer.wrap(bytes), 0, bytes.length));
+	}
+
+	/**
+	 * Base URLs of all other instances, in the configured order.
+	 */
+	List<String> peers() {
+		if (!isPartitioned()) {
+			return List.of();
+		}
+		return instances.stream().filter(instance -> !instance.equals(instances.get(index))).toList();
+	}
+
+	/**
+	 * Passes on only the readings of cities owned by this instance. Other cities are skipped by the parser
+	 * after hashing the first field of the line.
+	 */
+	TemperatureRecordHandler ownedCities(TemperatureRecordHandler handler) {
+		if (!isPartitioned()) {
+			return handler;
+		}
+		return new TemperatureRecordHandler() {
+
+			@Override
+			public void accept(ByteBuffer buffer, int cityStart, int cityEnd, int year, int month, int day,
+					int temperatureHundredths) {
+				handler.accept(buffer, cityStart, cityEnd, year, month, day, temperatureHundredths);
+			}
+
+			@Override
+			public boolean acceptsCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+				return owns(buffer, cityStart, cityEnd);
+			}
+		};
+	}
+
+	private int ownerIndex(ByteBuffer buffer, int from, int to) {
+		final int position = Arrays.binarySearch(points, hash(buffer, from, to));
+		final int point = position >= 0 ? position : -position - 1;
+		return owners[point == points.length ? 0 : point];
+	}
+
+	// FNV-1a spreads short, similar names poorly over the ring, so it is finished with the MurmurHash3 mix
+	private static int hash(ByteBuffer buffer, int from, int to) {
+		int hash = CityDictionary.hash(buffer, from, to);
+		hash = (hash ^ (hash >>> 16)) * 0x85ebca6b;
+		hash = (hash ^ (hash >>> 13)) * 0xc2b2ae35;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static String withoutTrailingSlash(String url) {
+		return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+	}
+}
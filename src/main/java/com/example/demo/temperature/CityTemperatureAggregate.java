@@ -0,0 +1,425 @@
+package com.example.demo.temperature;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running sum, count, minimum and maximum of readings per month for a single city, kept in a block per year
+ * that has readings. Blocks are sorted by year, so a stray reading far away from the others costs one more
+ * block rather than arrays spanning every year in between. Yearly figures are folded from the twelve months
+ * of a block. A daily sum and count per block, indexed by the day of the year, backs date range queries, and
+ * a {@link TemperatureDigest} per block estimates the percentiles of the readings. Temperatures are in
+ * hundredths of a degree, so sums are exact.
+ */
+final class CityTemperatureAggregate {
+
+	private static final int MONTHS = 12;
+
+	private static final long DAYS_0000_TO_1970 = (146097L * 5) - (30L * 365 + 7);
+
+	// Object header and fields, plus the headers of the two arrays
+	private static final long BASE_SIZE_BYTES = 24 + 2 * 16;
+
+	// Years with readings in ascending order, and the block of each at the same index
+	private int[] years = new int[0];
+
+	private YearBlock[] blocks = new YearBlock[0];
+
+	// Readings usually come in runs of one year, so the block of the previous one is tried first
+	private int lastBlock;
+
+	void add(int year, int month, int day, int temperatureHundredths) {
+		final YearBlock block = block(year);
+		block.add(month, temperatureHundredths, 1, temperatureHundredths, temperatureHundredths);
+		final int dayIndex = (int) (epochDay(year, month, day) - block.firstDay);
+		block.daySums[dayIndex] += temperatureHundredths;
+		block.dayCounts[dayIndex]++;
+		block.digest().add(temperatureHundredths);
+	}
+
+	void add(int year, int month, long sumHundredths, long count, int minHundredths, int maxHundredths) {
+		block(year).add(month, sumHundredths, count, minHundredths, maxHundredths);
+	}
+
+	/**
+	 * Adds to the daily index only; the readings must also be added to the months.
+	 */
+	void addDay(long epochDay, long sumHundredths, int count) {
+		final YearBlock block = blockOfDay(epochDay);
+		final int dayIndex = (int) (epochDay - block.firstDay);
+		block.daySums[dayIndex] += sumHundredths;
+		block.dayCounts[dayIndex] += count;
+	}
+
+	/**
+	 * Merges into the digest of the year only; the readings must already have been added to the months.
+	 */
+	void addDigest(int year, TemperatureDigest digest) {
+		block(year).digest().merge(digest);
+	}
+
+	CityTemperatureAggregate copy() {
+		final CityTemperatureAggregate copy = new CityTemperatureAggregate();
+		copy.years = years.clone();
+		copy.blocks = new YearBlock[blocks.length];
+		for (int i = 0; i < blocks.length; i++) {
+			copy.blocks[i] = blocks[i].copy();
+		}
+		return copy;
+	}
+
+	void merge(CityTemperatureAggregate other) {
+		other.forEachMonth(this::add);
+		other.forEachDay(this::addDay);
+		other.forEachDigest(this::addDigest);
+	}
+
+	/**
+	 * Folds the readings buffered by the digests into their centroids, so that queries on a published
+	 * aggregate do not have to.
+	 */
+	void compactDigests() {
+		for (YearBlock block : blocks) {
+			if (block.digest != null) {
+				block.digest.compact();
+			}
+		}
+	}
+
+	int monthCount() {
+		int months = 0;
+		for (YearBlock block : blocks) {
+			for (long count : block.counts) {
+				if (count > 0) {
+					months++;
+				}
+			}
+		}
+		return months;
+	}
+
+	int dayCount() {
+		int days = 0;
+		for (YearBlock block : blocks) {
+			for (int count : block.dayCounts) {
+				if (count > 0) {
+					days++;
+				}
+			}
+		}
+		return days;
+	}
+
+	void forEachMonth(MonthConsumer consumer) {
+		for (int i = 0; i < blocks.length; i++) {
+			final YearBlock block = blocks[i];
+			for (int month = 0; month < MONTHS; month++) {
+				if (block.counts[month] > 0) {
+					consumer.accept(years[i], month + 1, block.sums[month], block.counts[month], block.mins[month],
+							block.maxs[month]);
+				}
+			}
+		}
+	}
+
+	void forEachDay(DayConsumer consumer) {
+		for (YearBlock block : blocks) {
+			for (int i = 0; i < block.dayCounts.length; i++) {
+				if (block.dayCounts[i] > 0) {
+					consumer.accept(block.firstDay + i, block.daySums[i], block.dayCounts[i]);
+				}
+			}
+		}
+	}
+
+	void forEachDigest(DigestConsumer consumer) {
+		for (int i = 0; i < blocks.length; i++) {
+			if (blocks[i].digest != null && blocks[i].digest.count() > 0) {
+				consumer.accept(years[i], blocks[i].digest);
+			}
+		}
+	}
+
+	List<TemperatureResult> yearlyAverages() {
+		final List<TemperatureResult> results = new ArrayList<>();
+
+		for (int i = 0; i < blocks.length; i++) {
+			long sum = 0;
+			long count = 0;
+			for (int month = 0; month < MONTHS; month++) {
+				sum += blocks[i].sums[month];
+				count += blocks[i].counts[month];
+			}
+			if (count > 0) {
+				results.add(new TemperatureResult(years[i], average(sum, count)));
+			}
+		}
+
+		return results;
+	}
+
+	List<TemperatureStatistics> yearlyStatistics() {
+		final List<TemperatureStatistics> results = new ArrayList<>();
+
+		for (int i = 0; i < blocks.length; i++) {
+			final YearBlock block = blocks[i];
+			long sum = 0;
+			long count = 0;
+			int min = Integer.MAX_VALUE;
+			int max = Integer.MIN_VALUE;
+			for (int month = 0; month < MONTHS; month++) {
+				sum += block.sums[month];
+				count += block.counts[month];
+				min = Math.min(min, block.mins[month]);
+				max = Math.max(max, block.maxs[month]);
+			}
+			if (count > 0) {
+				results.add(statistics(years[i], null, sum, count, min, max));
+			}
+		}
+
+		return results;
+	}
+
+	List<TemperatureStatistics> monthlyStatistics() {
+		final List<TemperatureStatistics> results = new ArrayList<>();
+		forEachMonth((year, month, sum, count, min, max) -> results.add(statistics(year, month, sum, count, min, max)));
+		return results;
+	}
+
+	/**
+	 * Estimated percentiles, each between 0 and 100, of the readings of every year.
+	 */
+	List<TemperaturePercentiles> yearlyPercentiles(List<Double> percentiles) {
+		final List<TemperaturePercentiles> results = new ArrayList<>();
+		forEachDigest((year, digest) -> {
+			final Map<String, Double> values = new LinkedHashMap<>();
+			for (double percentile : percentiles) {
+				values.put(TemperaturePercentiles.key(percentile), round(digest.quantile(percentile / 100)));
+			}
+			results.add(new TemperaturePercentiles(year, digest.count(), values));
+		});
+		return results;
+	}
+
+	/**
+	 * Average over the days from {@code from} to {@code to}, both inclusive. Only the blocks of years within
+	 * the range are visited, and months that lie entirely within the range are read from the monthly buckets,
+	 * so only the days of the first and last month are visited.
+	 */
+	TemperatureRangeResult rangeAverage(LocalDate from, LocalDate to) {
+		final int first = Arrays.binarySearch(years, from.getYear());
+
+		long sum = 0;
+		long count = 0;
+		for (int i = first < 0 ? -first - 1 : first; i < blocks.length && years[i] <= to.getYear(); i++) {
+			final YearBlock block = blocks[i];
+			final LocalDate end = min(to, LocalDate.of(years[i], 12, 31));
+			LocalDate date = max(from, LocalDate.of(years[i], 1, 1));
+			while (!date.isAfter(end)) {
+				final LocalDate nextMonth = date.withDayOfMonth(1).plusMonths(1);
+				if (date.getDayOfMonth() == 1 && !nextMonth.minusDays(1).isAfter(end)) {
+					sum += block.sums[date.getMonthValue() - 1];
+					count += block.counts[date.getMonthValue() - 1];
+					date = nextMonth;
+				} else {
+					final int dayIndex = date.getDayOfYear() - 1;
+					sum += block.daySums[dayIndex];
+					count += block.dayCounts[dayIndex];
+					date = date.plusDays(1);
+				}
+			}
+		}
+
+		return new TemperatureRangeResult(from, to, count, count == 0 ? null : average(sum, count));
+	}
+
+	long estimatedSizeBytes() {
+		long size = BASE_SIZE_BYTES + (long) blocks.length * (Integer.BYTES + 8);
+		for (YearBlock block : blocks) {
+			size += block.estimatedSizeBytes();
+		}
+		return size;
+	}
+
+	private static TemperatureStatistics statistics(int year, Integer month, long sum, long count, int min, int max) {
+		return new TemperatureStatistics(year, month, count, average(sum, count), min / 100.0, max / 100.0);
+	}
+
+	private static double average(long sumHundredths, long count) {
+		return BigDecimal.valueOf(sumHundredths)
+				.divide(BigDecimal.valueOf(count * 100), 1, RoundingMode.HALF_UP)
+				.doubleValue();
+	}
+
+	private static double round(double hundredths) {
+		return BigDecimal.valueOf(hundredths / 100).setScale(1, RoundingMode.HALF_UP).doubleValue();
+	}
+
+	private static LocalDate max(LocalDate first, LocalDate second) {
+		return first.isAfter(second) ? first : second;
+	}
+
+	private static LocalDate min(LocalDate first, LocalDate second) {
+		return first.isBefore(second) ? first : second;
+	}
+
+	// The block of the year, inserted in order when the year has none yet
+	private YearBlock block(int year) {
+		if (lastBlock < years.length && years[lastBlock] == year) {
+			return blocks[lastBlock];
+		}
+		int index = Arrays.binarySearch(years, year);
+		if (index < 0) {
+			index = -index - 1;
+			final int[] newYears = new int[years.length + 1];
+			final YearBlock[] newBlocks = new YearBlock[blocks.length + 1];
+			System.arraycopy(years, 0, newYears, 0, index);
+			System.arraycopy(blocks, 0, newBlocks, 0, index);
+			System.arraycopy(years, index, newYears, index + 1, years.length - index);
+			System.arraycopy(blocks, index, newBlocks, index + 1, blocks.length - index);
+			newYears[index] = year;
+			newBlocks[index] = new YearBlock(year);
+			years = newYears;
+			blocks = newBlocks;
+		}
+		lastBlock = index;
+		return blocks[index];
+	}
+
+	private YearBlock blockOfDay(long epochDay) {
+		int low = 0;
+		int high = blocks.length - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final YearBlock block = blocks[middle];
+			if (epochDay < block.firstDay) {
+				high = middle - 1;
+			} else if (epochDay >= block.firstDay + block.dayCounts.length) {
+				low = middle + 1;
+			} else {
+				return block;
+			}
+		}
+		return block(LocalDate.ofEpochDay(epochDay).getYear());
+	}
+
+	/**
+	 * Days since 1970-01-01, computed like {@link LocalDate#toEpochDay()} without creating a date per reading.
+	 */
+	static long epochDay(int year, int month, int day) {
+		long total = 365L * year;
+		if (year >= 0) {
+			total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+		} else {
+			total -= year / -4 - year / -100 + year / -400;
+		}
+		total += (367L * month - 362) / 12;
+		total += day - 1;
+		if (month > 2) {
+			total--;
+			if (!isLeapYear(year)) {
+				total--;
+			}
+		}
+		return total - DAYS_0000_TO_1970;
+	}
+
+	private static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	// The months, the days from January 1st and the digest of one year
+	private static final class YearBlock {
+
+		// Object header and fields, plus the headers of the six arrays
+		private static final long BASE_SIZE_BYTES = 48 + 6 * 16;
+
+		private final long firstDay;
+
+		private final long[] sums;
+
+		private final long[] counts;
+
+		private final int[] mins;
+
+		private final int[] maxs;
+
+		private final long[] daySums;
+
+		private final int[] dayCounts;
+
+		private TemperatureDigest digest;
+
+		YearBlock(int year) {
+			firstDay = epochDay(year, 1, 1);
+			sums = new long[MONTHS];
+			counts = new long[MONTHS];
+			mins = new int[MONTHS];
+			maxs = new int[MONTHS];
+			Arrays.fill(mins, Integer.MAX_VALUE);
+			Arrays.fill(maxs, Integer.MIN_VALUE);
+			daySums = new long[isLeapYear(year) ? 366 : 365];
+			dayCounts = new int[daySums.length];
+		}
+
+		private YearBlock(YearBlock other) {
+			firstDay = other.firstDay;
+			sums = other.sums.clone();
+			counts = other.counts.clone();
+			mins = other.mins.clone();
+			maxs = other.maxs.clone();
+			daySums = other.daySums.clone();
+			dayCounts = other.dayCounts.clone();
+			digest = other.digest == null ? null : other.digest.copy();
+		}
+
+		void add(int month, long sumHundredths, long count, int minHundredths, int maxHundredths) {
+			sums[month - 1] += sumHundredths;
+			counts[month - 1] += count;
+			mins[month - 1] = Math.min(mins[month - 1], minHundredths);
+			maxs[month - 1] = Math.max(maxs[month - 1], maxHundredths);
+		}
+
+		TemperatureDigest digest() {
+			if (digest == null) {
+				digest = new TemperatureDigest();
+			}
+			return digest;
+		}
+
+		YearBlock copy() {
+			return new YearBlock(this);
+		}
+
+		long estimatedSizeBytes() {
+			return BASE_SIZE_BYTES + MONTHS * (2 * Long.BYTES + 2 * Integer.BYTES)
+					+ (long) dayCounts.length * (Long.BYTES + Integer.BYTES)
+					+ (digest == null ? 0 : digest.estimatedSizeBytes());
+		}
+	}
+
+	@FunctionalInterface
+	interface MonthConsumer {
+
+		void accept(int year, int month, long sumHundredths, long count, int minHundredths, int maxHundredths);
+	}
+
+	@FunctionalInterface
+	interface DayConsumer {
+
+		void accept(long epochDay, long sumHundredths, int count);
+	}
+
+	@FunctionalInterface
+	interface DigestConsumer {
+
+		void accept(int year, TemperatureDigest digest);
+	}
+}
@@ -0,0 +1,7 @@
+package com.example.demo.temperature;
+
+import java.util.List;
+
+record CityTemperatures(String city, List<TemperatureResult> yearlyAverages) {
+
+}
@@ -0,0 +1,6 @@
+package com.example.demo.temperature;
+
+enum Granularity {
+	YEAR,
+	MONTH
+}
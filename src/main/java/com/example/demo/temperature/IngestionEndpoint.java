@@ -0,0 +1,19 @@
+package com.example.demo.temperature;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@Endpoint(id = "ingestion")
+@RequiredArgsConstructor
+class IngestionEndpoint {
+
+	private final IngestionProgress ingestionProgress;
+
+	@ReadOperation
+	IngestionProgress.Status progress() {
+		return ingestionProgress.status();
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.demo.temperature;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Progress of the refresh that is currently running, or of the last one once it has finished.
+ */
+@Component
+class IngestionProgress {
+
+	private final AtomicLong bytesParsed = new AtomicLong();
+
+	private final AtomicLong rowsParsed = new AtomicLong();
+
+	private volatile boolean running;
+
+	private volatile long bytesTotal;
+
+	private volatile long startedNanos;
+
+	private volatile long finishedNanos;
+
+	record Status(boolean running,
+				  long bytesTotal,
+				  long bytesParsed,
+				  long rowsParsed,
+				  long rowsPerSecond,
+				  Long etaSeconds) {
+	}
+
+	void start(long totalBytes) {
+		bytesParsed.set(0);
+		rowsParsed.set(0);
+		bytesTotal = totalBytes;
+		startedNanos = System.nanoTime();
+		running = true;
+	}
+
+	void chunkParsed(long bytes, long rows) {
+		bytesParsed.addAndGet(bytes);
+		rowsParsed.addAndGet(rows);
+	}
+
+	void finish() {
+		finishedNanos = System.nanoTime();
+		running = false;
+	}
+
+	Status status() {
+		final boolean isRunning = running;
+		final long parsedBytes = bytesParsed.get();
+		final long parsedRows = rowsParsed.get();
+		final double elapsedSeconds = Math.max(1, (isRunning ? System.nanoTime() : finishedNanos) - startedNanos)
+				/ (double) TimeUnit.SECONDS.toNanos(1);
+		final long rowsPerSecond = startedNanos == 0 ? 0 : (long) (parsedRows / elapsedSeconds);
+
+		Long etaSeconds = null;
+		if (isRunning && parsedBytes > 0 && bytesTotal >= parsedBytes) {
+			etaSeconds = (long) Math.ceil(elapsedSeconds * (bytesTotal - parsedBytes) / parsedBytes);
+		}
+
+		return new Status(isRunning, bytesTotal, parsedBytes, parsedRows, rowsPerSecond, etaSeconds);
+	}
+}
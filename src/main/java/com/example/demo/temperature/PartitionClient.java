@@ -0,0 +1,181 @@
+package com.example.demo.temperature;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.server.ResponseStatusException;
+import com.example.demo.utils.exceptions.DataNotAvailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Calls the other instances of a partitioned deployment. Every call is marked with {@link #FORWARDED_HEADER},
+ * so the instance answering it never forwards or fans out again, even if the partitioning configuration of
+ * the two instances disagrees. Calls give up after the configured connect and read timeouts with
+ * {@code 504 Gateway Timeout}, and at most {@code temperature.partition.max-concurrent-requests} fan-out
+ * calls run at once, so a peer that hangs ties up neither request threads nor an unbounded number of others.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+class PartitionClient {
+
+	static final String FORWARDED_HEADER = "X-Temperature-Forwarded";
+
+	private static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+			HttpHeaders.RETRY_AFTER);
+
+	private final RestClient.Builder restClientBuilder;
+
+	@Value("${temperature.partition.connect-timeout-ms:1000}")
+	private long connectTimeoutMs;
+
+	@Value("${temperature.partition.read-timeout-ms:5000}")
+	private long readTimeoutMs;
+
+	@Value("${temperature.partition.max-concurrent-requests:64}")
+	private int maxConcurrentRequests;
+
+	private RestClient restClient;
+
+	private ThreadPoolExecutor fanOutExecutor;
+
+	@PostConstruct
+	void start() {
+		restClient = restClientBuilder
+				.requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+						.withConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+						.withReadTimeout(Duration.ofMillis(readTimeoutMs))))
+				.build();
+		// As many calls wait as run, anything beyond that is refused
+		fanOutExecutor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, 1, TimeUnit.MINUTES,
+				new ArrayBlockingQueue<>(maxConcurrentRequests), task -> {
+					final Thread thread = new Thread(task, "temperature-partition-fan-out");
+					thread.setDaemon(true);
+					return thread;
+				});
+		fanOutExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	@PreDestroy
+	void stop() {
+		fanOutExecutor.shutdownNow();
+	}
+
+	/**
+	 * Replays a GET request on the instance and copies its status, body and the headers a client relies on.
+	 */
+	void forward(String instance, HttpServletRequest request, HttpServletResponse response) {
+		// The request URI is still encoded, so it must not be encoded again
+		final String query = request.getQueryString() == null ? "" : "?" + request.getQueryString();
+		try {
+			restClient.get()
+					.uri(URI.create(instance + request.getRequestURI() + query))
+					.headers(headers -> {
+						headers.set(FORWARDED_HEADER, "true");
+						copyHeader(request, headers, HttpHeaders.ACCEPT);
+						copyHeader(request, headers, HttpHeaders.IF_NONE_MATCH);
+					})
+					.exchange((clientRequest, clientResponse) -> {
+						response.setStatus(clientResponse.getStatusCode().value());
+						for (String header : FORWARDED_RESPONSE_HEADERS) {
+							final String value = clientResponse.getHeaders().getFirst(header);
+							if (value != null) {
+								response.setHeader(header, value);
+							}
+						}
+						clientResponse.getBody().transferTo(response.getOutputStream());
+						return null;
+					});
+		} catch (RestClientException e) {
+			throw unavailable(instance, e);
+		}
+	}
+
+	CompletableFuture<List<CityTemperatures>> getYearlyAverageTemperatures(String instance, List<String> cities) {
+		try {
+			return CompletableFuture.supplyAsync(() -> yearlyAverageTemperatures(instance, cities), fanOutExecutor);
+		} catch (RejectedExecutionException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests to other instances", e);
+		}
+	}
+
+	/**
+	 * Opens the NDJSON stream of every city the instance owns, failing unless the instance answers with a
+	 * success, so the caller can still send an error status. The caller reads the body and closes it.
+	 */
+	ClientHttpResponse openYearlyAverageTemperatures(String instance) {
+		try {
+			return restClient.get()
+					.uri(instance + "/v1/temperatures")
+					.header(FORWARDED_HEADER, "true")
+					.accept(MediaType.APPLICATION_NDJSON)
+					.exchange((clientRequest, clientResponse) -> {
+						if (!clientResponse.getStatusCode().is2xxSuccessful()) {
+							clientResponse.close();
+							throw new IOException("Instance " + instance + " answered " + clientResponse.getStatusCode());
+						}
+						return clientResponse;
+					}, false);
+		} catch (RestClientException e) {
+			throw unavailable(instance, e);
+		}
+	}
+
+	private List<CityTemperatures> yearlyAverageTemperatures(String instance, List<String> cities) {
+		try {
+			final CityTemperatures[] results = restClient.post()
+					.uri(instance + "/v1/temperatures/batch")
+					.header(FORWARDED_HEADER, "true")
+					.contentType(MediaType.APPLICATION_JSON)
+					.body(cities)
+					.retrieve()
+					.onStatus(status -> status.value() == HttpStatus.SERVICE_UNAVAILABLE.value(), (clientRequest, clientResponse) -> {
+						throw new DataNotAvailableException("Instance " + instance + " is still loading temperature data");
+					})
+					.body(CityTemperatures[].class);
+			return results == null ? List.of() : Arrays.asList(results);
+		} catch (RestClientException e) {
+			throw unavailable(instance, e);
+		}
+	}
+
+	private static void copyHeader(HttpServletRequest request, HttpHeaders headers, String name) {
+		final String value = request.getHeader(name);
+		if (value != null) {
+			headers.set(name, value);
+		}
+	}
+
+	private static ResponseStatusException unavailable(String instance, RestClientException e) {
+		log.warn("Request to instance {} failed", instance, e);
+		if (e.getMostSpecificCause() instanceof SocketTimeoutException
+				|| e.getMostSpecificCause() instanceof HttpTimeoutException) {
+			return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Instance " + instance + " did not answer in time", e);
+		}
+		return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Instance " + instance + " could not be reached", e);
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.demo.temperature;
+
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Forwards requests for a single city to the instance that owns it, before the controller is invoked.
+ * Requests that were already forwarded are always answered locally.
+ */
+@Component
+@RequiredArgsConstructor
+class PartitionRoutingInterceptor implements HandlerInterceptor {
+
+	private static final String CITY = "city";
+
+	private final CityPartitioner cityPartitioner;
+
+	private final PartitionClient partitionClient;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!cityPartitioner.isPartitioned() || request.getHeader(PartitionClient.FORWARDED_HEADER) != null) {
+			return true;
+		}
+
+		@SuppressWarnings("unchecked")
+		final var variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		final String city = variables == null ? null : variables.get(CITY);
+		if (city == null || cityPartitioner.owns(city)) {
+			return true;
+		}
+
+		partitionClient.forward(cityPartitioner.ownerOf(city), request, response);
+		return false;
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.demo.temperature;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@RequiredArgsConstructor
+class PartitionWebConfig implements WebMvcConfigurer {
+
+	private final PartitionRoutingInterceptor partitionRoutingInterceptor;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(partitionRoutingInterceptor).addPathPatterns("/v1/temperatures/**");
+	}
+}
@@ -0,0 +1,5 @@
+package com.example.demo.temperature;
+
+record PushResult(long accepted,
+				  long rejected) {
+}
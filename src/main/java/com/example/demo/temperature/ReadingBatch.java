@@ -0,0 +1,144 @@
+package com.example.demo.temperature;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import com.example.demo.utils.Constants;
+import com.example.demo.utils.parser.ParsedChunk;
+import com.example.demo.utils.parser.TemperatureLineParser;
+import com.example.demo.utils.parser.TemperatureRecordHandler;
+
+/**
+ * Readings of one push request, parsed up front so that the request is either buffered whole or refused.
+ * Dates are packed as {@code year << 9 | month << 5 | day}.
+ */
+final class ReadingBatch implements TemperatureRecordHandler {
+
+	// The same bound as the six integer digits accepted by the line parser
+	private static final double MAX_ABS_TEMPERATURE = 1_000_000;
+
+	private static final int MAX_YEAR = 9999;
+
+	private String[] cities = new String[16];
+
+	private int[] dates = new int[16];
+
+	private int[] temperatures = new int[16];
+
+	private int size;
+
+	private long rejected;
+
+	private byte[] lastCityBytes = new byte[0];
+
+	private String lastCity;
+
+	private final CityPartitioner cityPartitioner;
+
+	private ReadingBatch(CityPartitioner cityPartitioner) {
+		this.cityPartitioner = cityPartitioner;
+	}
+
+	/**
+	 * Parses {@code city;yyyy-MM-dd HH:mm:ss.SSS;temp} lines. Malformed lines and lines of cities owned by
+	 * another instance are counted as rejected and skipped.
+	 */
+	static ReadingBatch ofLines(byte[] lines, CityPartitioner cityPartitioner) {
+		final ReadingBatch batch = new ReadingBatch(cityPartitioner);
+		final ParsedChunk parsed = TemperatureLineParser.parseChunk(ByteBuffer.wrap(lines), batch);
+		batch.rejected = parsed.rejectedRows() + parsed.rows() - batch.size;
+		return batch;
+	}
+
+	/**
+	 * Takes readings decoded from JSON. Readings the file format could not hold and readings of cities owned
+	 * by another instance are counted as rejected and skipped.
+	 */
+	static ReadingBatch of(List<Temperature> readings, CityPartitioner cityPartitioner) {
+		final ReadingBatch batch = new ReadingBatch(cityPartitioner);
+		for (Temperature reading : readings) {
+			if (isValid(reading) && cityPartitioner.owns(reading.city())) {
+				batch.add(reading.city(), pack(reading.timestamp().getYear(), reading.timestamp().getMonthValue(),
+						reading.timestamp().getDayOfMonth()), (int) Math.round(reading.temperature() * 100));
+			} else {
+				batch.rejected++;
+			}
+		}
+		return batch;
+	}
+
+	@Override
+	public void accept(ByteBuffer buffer, int cityStart, int cityEnd, int year, int month, int day,
+			int temperatureHundredths) {
+		// Gateways usually send runs of readings of one city, which then share a single String
+		if (!isLastCity(buffer, cityStart, cityEnd)) {
+			lastCityBytes = new byte[cityEnd - cityStart];
+			buffer.get(cityStart, lastCityBytes);
+			lastCity = new String(lastCityBytes, StandardCharsets.UTF_8);
+		}
+		add(lastCity, pack(year, month, day), temperatureHundredths);
+	}
+
+	@Override
+	public boolean acceptsCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+		return cityPartitioner.owns(buffer, cityStart, cityEnd);
+	}
+
+	int size() {
+		return size;
+	}
+
+	long rejected() {
+		return rejected;
+	}
+
+	String city(int index) {
+		return cities[index];
+	}
+
+	int date(int index) {
+		return dates[index];
+	}
+
+	int temperature(int index) {
+		return temperatures[index];
+	}
+
+	static int pack(int year, int month, int day) {
+		return year << 9 | month << 5 | day;
+	}
+
+	private void add(String city, int date, int temperatureHundredths) {
+		if (size == cities.length) {
+			cities = Arrays.copyOf(cities, size * 2);
+			dates = Arrays.copyOf(dates, size * 2);
+			temperatures = Arrays.copyOf(temperatures, size * 2);
+		}
+		cities[size] = city;
+		dates[size] = date;
+		temperatures[size] = temperatureHundredths;
+		size++;
+	}
+
+	private boolean isLastCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+		if (cityEnd - cityStart != lastCityBytes.length) {
+			return false;
+		}
+		for (int i = 0; i < lastCityBytes.length; i++) {
+			if (buffer.get(cityStart + i) != lastCityBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isValid(Temperature reading) {
+		return reading != null
+				&& reading.city() != null && !reading.city().isEmpty()
+				&& !reading.city().contains(Constants.DELIMITER) && reading.city().indexOf('\n') < 0
+				&& reading.timestamp() != null
+				&& reading.timestamp().getYear() >= 0 && reading.timestamp().getYear() <= MAX_YEAR
+				&& Double.isFinite(reading.temperature()) && Math.abs(reading.temperature()) < MAX_ABS_TEMPERATURE;
+	}
+}
@@ -0,0 +1,9 @@
+package com.example.demo.temperature;
+
+/**
+ * A result already rendered as UTF-8 JSON, together with the version of the snapshot it was computed from.
+ * The array is shared between requests and must not be modified.
+ */
+record RenderedResult(long version, byte[] json) {
+
+}
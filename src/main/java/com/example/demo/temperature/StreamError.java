@@ -0,0 +1,8 @@
+package com.example.demo.temperature;
+
+/**
+ * Last line of an NDJSON stream that could not be completed after its status was sent.
+ */
+record StreamError(String error) {
+
+}
@@ -0,0 +1,159 @@
+package com.example.demo.temperature;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import com.example.demo.utils.parser.TemperatureRecordHandler;
+
+/**
+ * Per-city yearly aggregates. Used both as the partial result of parsing one chunk and as the merged
+ * result of a whole file. Cities are encoded as dense IDs by a {@link CityDictionary} and the aggregates
+ * are held in an array indexed by those IDs. Not thread-safe.
+ */
+final class TemperatureAggregates implements TemperatureRecordHandler {
+
+	// Object header and fields, plus the header of the array
+	private static final long BASE_SIZE_BYTES = 32 + 16;
+
+	private final CityDictionary dictionary;
+
+	private CityTemperatureAggregate[] aggregates;
+
+	private byte[] lastCityBytes = new byte[64];
+
+	private int lastCityLength = -1;
+
+	private CityTemperatureAggregate lastCity;
+
+	TemperatureAggregates() {
+		this(new CityDictionary(), new CityTemperatureAggregate[16]);
+	}
+
+	private TemperatureAggregates(CityDictionary dictionary, CityTemperatureAggregate[] aggregates) {
+		this.dictionary = dictionary;
+		this.aggregates = aggregates;
+	}
+
+	@Override
+	public void accept(ByteBuffer buffer, int cityStart, int cityEnd, int year, int month, int day,
+			int temperatureHundredths) {
+		if (!isLastCity(buffer, cityStart, cityEnd)) {
+			rememberLastCity(buffer, cityStart, cityEnd);
+		}
+		lastCity.add(year, month, day, temperatureHundredths);
+	}
+
+	void add(String city, int year, int month, int day, int temperatureHundredths) {
+		aggregate(dictionary.idOf(city)).add(year, month, day, temperatureHundredths);
+	}
+
+	void add(String city, int year, int month, long sumHundredths, long count, int minHundredths, int maxHundredths) {
+		aggregate(dictionary.idOf(city)).add(year, month, sumHundredths, count, minHundredths, maxHundredths);
+	}
+
+	void addDay(String city, long epochDay, long sumHundredths, int count) {
+		aggregate(dictionary.idOf(city)).addDay(epochDay, sumHundredths, count);
+	}
+
+	// IDs are local to each instance, so they are translated once per city, not once per reading
+	void merge(TemperatureAggregates other) {
+		for (int otherId = 0; otherId < other.dictionary.size(); otherId++) {
+			aggregate(dictionary.idOf(other.dictionary.name(otherId))).merge(other.aggregates[otherId]);
+		}
+	}
+
+	/**
+	 * Returns new aggregates with {@code updates} merged in, leaving these untouched so they can still be
+	 * read concurrently. Only the cities that are updated are copied; all others are shared, and the
+	 * dictionary is extended rather than copied. What remains proportional to the number of cities is the
+	 * copy of the array of references to their aggregates, four bytes per city.
+	 */
+	TemperatureAggregates mergedWith(List<TemperatureAggregates> updates) {
+		final TemperatureAggregates result = new TemperatureAggregates(dictionary.extend(), aggregates.clone());
+		for (TemperatureAggregates update : updates) {
+			for (int updateId = 0; updateId < update.dictionary.size(); updateId++) {
+				final int id = result.dictionary.idOf(update.dictionary.name(updateId));
+				// Aggregates still shared with these are copied before the first change
+				if (id < dictionary.size() && result.aggregates[id] == aggregates[id]) {
+					result.aggregates[id] = aggregates[id].copy();
+				}
+				result.aggregate(id).merge(update.aggregates[updateId]);
+			}
+		}
+		return result;
+	}
+
+	void addDigest(String city, int year, TemperatureDigest digest) {
+		aggregate(dictionary.idOf(city)).addDigest(year, digest);
+	}
+
+	void compactDigests() {
+		for (int id = 0; id < dictionary.size(); id++) {
+			aggregates[id].compactDigests();
+		}
+	}
+
+	CityTemperatureAggregate get(String city) {
+		final int id = dictionary.find(city);
+		return id == CityDictionary.NOT_FOUND ? null : aggregates[id];
+	}
+
+	/**
+	 * Names of all cities, in the order they were first added.
+	 */
+	List<String> cities() {
+		return dictionary.names();
+	}
+
+	int size() {
+		return dictionary.size();
+	}
+
+	boolean isEmpty() {
+		return dictionary.size() == 0;
+	}
+
+	/**
+	 * Rough estimate of the heap held by the aggregates, assuming compressed references.
+	 */
+	long estimatedSizeBytes() {
+		long size = BASE_SIZE_BYTES + (long) aggregates.length * 4 + dictionary.estimatedSizeBytes();
+		for (int id = 0; id < dictionary.size(); id++) {
+			size += aggregates[id].estimatedSizeBytes();
+		}
+		return size;
+	}
+
+	private CityTemperatureAggregate aggregate(int id) {
+		if (id == aggregates.length) {
+			aggregates = Arrays.copyOf(aggregates, id * 2);
+		}
+		if (aggregates[id] == null) {
+			aggregates[id] = new CityTemperatureAggregate();
+		}
+		return aggregates[id];
+	}
+
+	// Rows are usually grouped by city, so consecutive rows mostly hit the same city and need no lookup.
+	private boolean isLastCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+		if (cityEnd - cityStart != lastCityLength) {
+			return false;
+		}
+		for (int i = 0; i < lastCityLength; i++) {
+			if (buffer.get(cityStart + i) != lastCityBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rememberLastCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+		lastCityLength = cityEnd - cityStart;
+		if (lastCityBytes.length < lastCityLength) {
+			lastCityBytes = Arrays.copyOf(lastCityBytes, lastCityLength);
+		}
+		buffer.get(cityStart, lastCityBytes, 0, lastCityLength);
+
+		lastCity = aggregate(dictionary.idOf(buffer, cityStart, cityEnd));
+	}
+}
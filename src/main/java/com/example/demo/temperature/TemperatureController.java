@@ -1,21 +1,291 @@
 package com.example.demo.temperature;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.utils.exceptions.DataNotAvailableException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 
+@Log4j2
 @RestController
 @RequestMapping("/v1/temperatures")
 @RequiredArgsConstructor
 class TemperatureController {
 
+	private static final String WARMING_UP = "WARMING_UP";
+
+	private static final String DATA_NOT_LOADED_YET = "Temperature data is still being loaded, please retry shortly";
+
+	private static final long RETRY_AFTER_SECONDS = 5;
+
+	private static final long PUSH_RETRY_AFTER_SECONDS = 1;
+
+	private static final String TEXT_CSV_VALUE = "text/csv";
+
+	private static final int PEER_STREAM_BUFFER_SIZE = 8192;
+
+	// Snapshot versions restart with the process, so the ETag also names the process that issued it
+	private static final String ETAG_PREFIX = Long.toHexString(ThreadLocalRandom.current().nextLong()) + "-";
+
 	private final TemperatureService temperatureService;
 
+	private final TemperatureDataInitializer temperatureDataInitializer;
+
+	private final IngestionProgress ingestionProgress;
+
+	private final ObjectMapper objectMapper;
+
+	private final TemperatureIngestionBuffer ingestionBuffer;
+
+	private final CityPartitioner cityPartitioner;
+
+	private final PartitionClient partitionClient;
+
+	// The body is rendered once per snapshot and written as is; a matching If-None-Match gets a 304
 	@GetMapping("/{city}")
-	List<TemperatureResult> getYearlyAverageTemperatureByCity(@PathVariable String city) {
-		return temperatureService.getYearlyAverageTemperature(city);
+	ResponseEntity<byte[]> getYearlyAverageTemperatureByCity(@PathVariable String city) {
+		ensureDataAvailable();
+		return rendered(temperatureService.getYearlyAverageTemperatureJson(city));
+	}
+
+	@GetMapping("/{city}/statistics")
+	ResponseEntity<byte[]> getTemperatureStatisticsByCity(@PathVariable String city,
+			@RequestParam(defaultValue = "year") String granularity) {
+		ensureDataAvailable();
+		return rendered(temperatureService.getTemperatureStatisticsJson(city, granularityOf(granularity)));
+	}
+
+	@GetMapping("/{city}/range")
+	TemperatureRangeResult getAverageTemperatureByCityBetween(@PathVariable String city,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		if (from.isAfter(to)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+		}
+		ensureDataAvailable();
+		return temperatureService.getAverageTemperature(city, from, to);
+	}
+
+	@GetMapping("/{city}/percentiles")
+	List<TemperaturePercentiles> getTemperaturePercentilesByCity(@PathVariable String city,
+			@RequestParam(defaultValue = "50,95,99") List<Double> p) {
+		if (p.isEmpty() || p.stream().anyMatch(percentile -> !(percentile >= 0 && percentile <= 100))) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'p' must list percentiles between 0 and 100");
+		}
+		ensureDataAvailable();
+		return temperatureService.getTemperaturePercentiles(city, p);
+	}
+
+	@PostMapping("/batch")
+	List<CityTemperatures> getYearlyAverageTemperatureByCities(@RequestBody List<String> cities,
+			@RequestHeader(name = PartitionClient.FORWARDED_HEADER, required = false) String forwarded) {
+		ensureDataAvailable();
+		if (!cityPartitioner.isPartitioned() || forwarded != null) {
+			return temperatureService.getYearlyAverageTemperatures(cities);
+		}
+		return fanOut(cities);
+	}
+
+	// Streams one JSON object per line, so every city can be returned without holding the whole response. When
+	// partitioned, the cities of each instance follow one another, each in alphabetical order. The other
+	// instances are asked before the status is sent, so one that cannot answer fails the request instead of
+	// cutting the stream short; one that fails half way is reported by an error record ending the stream
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	ResponseEntity<StreamingResponseBody> getYearlyAverageTemperatureOfAllCities(
+			@RequestHeader(name = PartitionClient.FORWARDED_HEADER, required = false) String forwarded) {
+		ensureDataAvailable();
+		final List<String> peers = forwarded == null ? cityPartitioner.peers() : List.of();
+		final Map<String, ClientHttpResponse> peerStreams = openPeerStreams(peers);
+		final StreamingResponseBody body = outputStream -> {
+			try {
+				temperatureService.forEachYearlyAverageTemperature(cityTemperatures -> writeLine(outputStream, cityTemperatures));
+				for (Map.Entry<String, ClientHttpResponse> peerStream : peerStreams.entrySet()) {
+					if (!copyPeerStream(peerStream.getKey(), peerStream.getValue(), outputStream)) {
+						break;
+					}
+				}
+			} finally {
+				peerStreams.values().forEach(ClientHttpResponse::close);
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	// Pushed readings are published in micro-batches and show up in queries within milliseconds of the 202
+	@PostMapping(consumes = {MediaType.TEXT_PLAIN_VALUE, TEXT_CSV_VALUE})
+	ResponseEntity<PushResult> pushTemperatureLines(@RequestBody byte[] lines) {
+		ensureDataAvailable();
+		return push(ReadingBatch.ofLines(lines, cityPartitioner));
+	}
+
+	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+	ResponseEntity<PushResult> pushTemperatures(@RequestBody List<Temperature> temperatures) {
+		ensureDataAvailable();
+		return push(ReadingBatch.of(temperatures, cityPartitioner));
+	}
+
+	@ExceptionHandler(DataNotAvailableException.class)
+	ResponseEntity<WarmingUpResponse> handleDataNotAvailable(DataNotAvailableException e) {
+		final IngestionProgress.Status progress = ingestionProgress.status();
+		final long retryAfter = progress.etaSeconds() == null
+				? RETRY_AFTER_SECONDS
+				: Math.max(1, Math.min(progress.etaSeconds(), TimeUnit.MINUTES.toSeconds(1)));
+
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+				.body(new WarmingUpResponse(WARMING_UP, e.getMessage(), progress));
+	}
+
+	// Every instance is asked for its cities at once, and the answers are put back in the requested order
+	private List<CityTemperatures> fanOut(List<String> cities) {
+		final Map<String, List<String>> citiesByOwner = cities.stream().distinct()
+				.collect(Collectors.groupingBy(cityPartitioner::ownerOf));
+		final Map<String, CompletableFuture<List<CityTemperatures>>> remote = new HashMap<>();
+		final Map<String, CityTemperatures> results = new HashMap<>();
+		citiesByOwner.forEach((owner, ownedCities) -> {
+			if (cityPartitioner.owns(ownedCities.get(0))) {
+				temperatureService.getYearlyAverageTemperatures(ownedCities).forEach(result -> results.put(result.city(), result));
+			} else {
+				remote.put(owner, partitionClient.getYearlyAverageTemperatures(owner, ownedCities));
+			}
+		});
+		remote.values().forEach(future -> join(future).forEach(result -> results.put(result.city(), result)));
+		// An instance leaving out a city it does not know answers it like an unknown city
+		return cities.stream()
+				.map(city -> results.getOrDefault(city, new CityTemperatures(city, List.of())))
+				.toList();
+	}
+
+	private Map<String, ClientHttpResponse> openPeerStreams(List<String> peers) {
+		final Map<String, ClientHttpResponse> peerStreams = new LinkedHashMap<>();
+		try {
+			for (String peer : peers) {
+				peerStreams.put(peer, partitionClient.openYearlyAverageTemperatures(peer));
+			}
+			return peerStreams;
+		} catch (RuntimeException e) {
+			peerStreams.values().forEach(ClientHttpResponse::close);
+			throw e;
+		}
+	}
+
+	// Returns false when the instance failed half way, after ending the stream with an error record naming it.
+	// Only reading from the instance is caught, a client that went away fails the copy as usual
+	private boolean copyPeerStream(String peer, ClientHttpResponse peerStream, OutputStream outputStream)
+			throws IOException {
+		final byte[] buffer = new byte[PEER_STREAM_BUFFER_SIZE];
+		byte lastByte = '\n';
+		InputStream input = null;
+		while (true) {
+			final int read;
+			try {
+				if (input == null) {
+					input = peerStream.getBody();
+				}
+				read = input.read(buffer);
+			} catch (IOException e) {
+				log.warn("Streaming the cities of instance {} failed", peer, e);
+				if (lastByte != '\n') {
+					outputStream.write('\n');
+				}
+				outputStream.write(objectMapper.writeValueAsBytes(
+						new StreamError("Instance " + peer + " failed while streaming its cities, the stream is incomplete")));
+				outputStream.write('\n');
+				return false;
+			}
+			if (read < 0) {
+				return true;
+			}
+			if (read > 0) {
+				outputStream.write(buffer, 0, read);
+				lastByte = buffer[read - 1];
+			}
+		}
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private ResponseEntity<PushResult> push(ReadingBatch batch) {
+		if (batch.size() > ingestionBuffer.capacity()) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+					"A push must not hold more than " + ingestionBuffer.capacity() + " readings");
+		}
+		if (!ingestionBuffer.offer(batch)) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(PUSH_RETRY_AFTER_SECONDS))
+					.body(new PushResult(0, batch.rejected()));
+		}
+		return ResponseEntity.accepted().body(new PushResult(batch.size(), batch.rejected()));
+	}
+
+	private static ResponseEntity<byte[]> rendered(RenderedResult result) {
+		return ResponseEntity.ok()
+				.eTag(ETAG_PREFIX + result.version())
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(result.json());
+	}
+
+	private void writeLine(OutputStream outputStream, CityTemperatures cityTemperatures) {
+		try {
+			outputStream.write(objectMapper.writeValueAsBytes(cityTemperatures));
+			outputStream.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Granularity granularityOf(String granularity) {
+		try {
+			return Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Unknown granularity: " + granularity + ", expected year or month");
+		}
+	}
+
+	private void ensureDataAvailable() {
+		if (!temperatureDataInitializer.isDataAvailable()) {
+			throw new DataNotAvailableException(DATA_NOT_LOADED_YET);
+		}
 	}
 }
@@ -0,0 +1,27 @@
+package com.example.demo.temperature;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} while the initial load runs in the background. It belongs to the readiness
+ * group, so the instance only receives traffic once data is loaded, while liveness stays {@code UP}.
+ */
+@Component
+@RequiredArgsConstructor
+class TemperatureDataHealthIndicator implements HealthIndicator {
+
+	private final TemperatureDataInitializer temperatureDataInitializer;
+
+	private final IngestionProgress ingestionProgress;
+
+	@Override
+	public Health health() {
+		if (temperatureDataInitializer.isLoaded()) {
+			return Health.up().build();
+		}
+		return Health.outOfService().withDetail("ingestion", ingestionProgress.status()).build();
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.demo.temperature;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Loads the initial data in the background once the application has started, so the HTTP port opens
+ * right away. {@link TemperatureDataHealthIndicator} keeps the readiness group out of service until the
+ * load has finished.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+class TemperatureDataInitializer {
+
+	private final TemperatureDataScheduler temperatureDataScheduler;
+
+	private final TemperatureService temperatureService;
+
+	@Value("${temperature.initial-load.retry-delay-ms:10000}")
+	private long retryDelayMs;
+
+	private volatile boolean loaded;
+
+	@EventListener(ApplicationStartedEvent.class)
+	void startInitialLoad() {
+		final Thread loader = new Thread(this::load, "temperature-initial-load");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	boolean isLoaded() {
+		return loaded;
+	}
+
+	boolean isDataAvailable() {
+		return loaded || temperatureService.currentSnapshot().version() > 0;
+	}
+
+	void load() {
+		while (!loaded) {
+			try {
+				log.info("Initial load of temperature data started...");
+				temperatureDataScheduler.initializeData();
+				loaded = true;
+				log.info("Initial load of temperature data ended...");
+			} catch (RuntimeException e) {
+				// Not only unreadable files: any failure must be logged and retried, or readiness never turns UP
+				log.error("Initial load of temperature data failed, retrying in {} ms", retryDelayMs, e);
+				if (!sleep()) {
+					return;
+				}
+			}
+		}
+	}
+
+	private boolean sleep() {
+		try {
+			Thread.sleep(retryDelayMs);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -1,20 +1,35 @@
 package com.example.demo.temperature;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import com.example.demo.utils.Constants;
 import com.example.demo.utils.exceptions.FileProcessingException;
 import com.example.demo.utils.filereader.FileReaderStrategy;
-import jakarta.annotation.PostConstruct;
+import com.example.demo.utils.filereader.ReadCheckpoint;
+import com.example.demo.utils.parser.ParsedChunk;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
@@ -27,95 +42,363 @@ public class TemperatureDataScheduler {
 
 	private static final String ERROR_READING_THE_TEMPERATURE_FILE = "Error reading the temperature file";
 
-	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(
-			"yyyy-MM-dd HH:mm:ss.SSS");
-
 	private final FileReaderStrategy fileReader;
 
 	private final ExecutorService executorService;
 
 	private final TemperatureService temperatureService;
 
-	@PostConstruct
+	private final TemperatureSnapshotStore snapshotStore;
+
+	private final IngestionProgress ingestionProgress;
+
+	private final TemperatureMetrics temperatureMetrics;
+
+	private final CityPartitioner cityPartitioner;
+
+	@Value("${temperature.refresh.incremental:true}")
+	private boolean incremental;
+
+	@Value("${temperature.ingestion.max-in-flight-chunks:0}")
+	private int maxInFlightChunks;
+
+	@Value("${temperature.snapshot.min-interval-ms:60000}")
+	private long snapshotMinIntervalMs;
+
+	private final Object refreshLock = new Object();
+
+	// Writes snapshots off the refresh thread, so a refresh never waits for the disk
+	private final ScheduledThreadPoolExecutor snapshotWriter = snapshotWriter();
+
+	private final AtomicReference<PendingSnapshot> pendingSnapshot = new AtomicReference<>();
+
+	private volatile long lastSnapshotNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+	private boolean snapshotScheduled;
+
+	private ReadCheckpoint checkpoint;
+
+	private SourceState sourceState;
+
+	// Set once a refresh or the stored snapshot has been published, pushed readings do not count
+	private boolean loaded;
+
+	// Pushed readings of the last snapshot saved
+	private TemperatureAggregates savedPushed;
+
+	/**
+	 * Loads the initial data, preferring the stored snapshot. Called once by {@link TemperatureDataInitializer}
+	 * in the background after startup.
+	 */
 	public void initializeData() {
+		final var storedSnapshot = snapshotStore.load();
+		if (storedSnapshot.isPresent()) {
+			synchronized (refreshLock) {
+				// A refresh that got in first has published newer data than the stored snapshot
+				if (loaded) {
+					log.info("Temperature data was refreshed before the stored snapshot was loaded, ignoring it");
+					return;
+				}
+				temperatureService.restoreCityTemperatureData(storedSnapshot.get().aggregates(),
+						storedSnapshot.get().pushed());
+				checkpoint = storedSnapshot.get().checkpoint();
+				loaded = true;
+			}
+			log.info("Loaded temperature snapshot, catching up with the temperature file in the background...");
+			final Thread catchUp = new Thread(this::catchUp, "temperature-catch-up");
+			catchUp.setDaemon(true);
+			catchUp.start();
+			return;
+		}
+
 		log.info("Refreshing temperature data started...");
 		refreshData();
 		log.info("Refreshing temperature data ended...");
 	}
 
-	@Scheduled(fixedRate = Constants.FILE_READ_INTERVAL_MS)
+	/**
+	 * Writes the snapshot still waiting for its interval, so no refreshed data is lost on shutdown.
+	 */
+	@PreDestroy
+	void stop() throws InterruptedException {
+		snapshotWriter.shutdown();
+		snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+		writePendingSnapshot();
+	}
+
+	// Snapshots waiting for their interval are dropped on shutdown, stop() writes the latest one right away
+	private static ScheduledThreadPoolExecutor snapshotWriter() {
+		final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+			final Thread thread = new Thread(task, "temperature-snapshot-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		return executor;
+	}
+
+	private void catchUp() {
+		try {
+			refreshData();
+			log.info("Caught up with the temperature file");
+		} catch (FileProcessingException e) {
+			log.error("Catching up with the temperature file failed, serving data from the snapshot", e);
+		}
+	}
+
+	@Scheduled(initialDelay = Constants.FILE_READ_INTERVAL_MS, fixedRate = Constants.FILE_READ_INTERVAL_MS)
 	public void refreshDataScheduled() {
-		log.info("Scheduled Refreshing temperature data started...");
-		refreshData();
-		log.info("Scheduled Refreshing temperature data ended...");
+		refreshIfChanged();
+	}
+
+	/**
+	 * Refreshes the data unless the file still has the size, modification time and identity it had at the
+	 * start of the previous successful refresh. Readings pushed since the last snapshot are saved either way.
+	 */
+	public void refreshIfChanged() {
+		synchronized (refreshLock) {
+			final SourceState currentState = currentSourceState();
+			if (currentState != null && currentState.equals(sourceState)) {
+				log.debug("Temperature file unchanged, skipping refresh");
+				if (temperatureService.currentSnapshot().pushed() != savedPushed) {
+					saveSnapshot(snapshotMinIntervalMs);
+				}
+				return;
+			}
+
+			log.info("Refreshing changed temperature data started...");
+			refreshData();
+			log.info("Refreshing changed temperature data ended...");
+		}
 	}
 
 	public void refreshData() {
-		final var futures = submitLinesForProcessing();
-		final var results = waitForResults(futures);
-		updateCityTemperatures(results);
+		synchronized (refreshLock) {
+			// Only remembered once the data is published, so a failed refresh is retried by the next check
+			final SourceState startState = currentSourceState();
+			sourceState = null;
+			final long size = startState == null ? 0 : startState.size();
+
+			temperatureMetrics.refreshStarted();
+			try {
+				if (incremental && checkpoint != null) {
+					ingestionProgress.start(Math.max(0, size - checkpoint.offset()));
+					if (refreshAppendedData()) {
+						temperatureMetrics.refreshFinished(TemperatureMetrics.INCREMENTAL);
+						sourceState = startState;
+						loaded = true;
+						return;
+					}
+				}
+
+				ingestionProgress.start(size);
+				reloadData();
+				temperatureMetrics.refreshFinished(TemperatureMetrics.FULL);
+				sourceState = startState;
+				loaded = true;
+			} finally {
+				ingestionProgress.finish();
+			}
+		}
+	}
+
+	private void reloadData() {
+		final var results = new ChunkResults();
+		final ReadCheckpoint newCheckpoint = readChunks(() -> fileReader.readChunks(results::submit));
+		final var merged = results.await();
+		updateCityTemperatures(merged);
+		checkpoint = newCheckpoint;
+		saveSnapshot(0);
+	}
+
+	private boolean refreshAppendedData() {
+		final var results = new ChunkResults();
+		final ReadCheckpoint newCheckpoint = readChunks(() -> fileReader.readAppendedChunks(checkpoint, results::submit));
+		if (newCheckpoint == null) {
+			log.info("Temperature file was rewritten, reloading it completely");
+			results.await();
+			return false;
+		}
+
+		final var merged = results.await();
+		if (!merged.isEmpty()) {
+			log.info("Appending {} bytes of city temperature", newCheckpoint.offset() - checkpoint.offset());
+			temperatureService.updateCityTemperatureData(merged);
+		}
+		checkpoint = newCheckpoint;
+		if (!merged.isEmpty()) {
+			saveSnapshot(snapshotMinIntervalMs);
+		}
+		return true;
+	}
+
+	/**
+	 * Saves the published data with the current checkpoint once at least {@code minIntervalMs} have passed
+	 * since the previous save. Refreshes in between only replace what is waiting to be saved, so appending
+	 * a line does not rewrite the whole snapshot every time.
+	 */
+	private void saveSnapshot(long minIntervalMs) {
+		final TemperatureSnapshot current = temperatureService.currentSnapshot();
+		pendingSnapshot.set(new PendingSnapshot(current.aggregates(), current.pushed(), checkpoint));
+		savedPushed = current.pushed();
+		final long delayNanos = Math.max(0, lastSnapshotNanos + TimeUnit.MILLISECONDS.toNanos(minIntervalMs) - System.nanoTime());
+		synchronized (snapshotWriter) {
+			if (snapshotScheduled && delayNanos > 0) {
+				return;
+			}
+			snapshotScheduled = true;
+		}
+		try {
+			snapshotWriter.schedule(this::writePendingSnapshot, delayNanos, TimeUnit.NANOSECONDS);
+		} catch (RejectedExecutionException e) {
+			log.debug("Shutting down, the snapshot is written by stop()");
+		}
 	}
 
-	private List<Future<List<Temperature>>> submitLinesForProcessing() {
-		final List<Future<List<Temperature>>> futures = new ArrayList<>();
+	private void writePendingSnapshot() {
+		synchronized (snapshotWriter) {
+			snapshotScheduled = false;
+		}
+		final PendingSnapshot pending = pendingSnapshot.getAndSet(null);
+		if (pending != null) {
+			snapshotStore.save(pending.aggregates(), pending.pushed(), pending.checkpoint());
+			lastSnapshotNanos = System.nanoTime();
+		}
+	}
 
+	private ReadCheckpoint readChunks(ChunkRead chunkRead) {
 		try {
-			fileReader.readFile(line -> {
-				final List<Temperature> temperatures = processLineToTemperature(line);
-				if (!temperatures.isEmpty()) {  // Only submit if temperatures list is not empty
-					final Future<List<Temperature>> future = executorService.submit(() -> temperatures);
-					futures.add(future);
-				}
-			});
+			return chunkRead.read();
 		} catch (IOException e) {
 			throw new FileProcessingException(ERROR_READING_THE_TEMPERATURE_FILE, e);
 		}
+	}
 
-		return futures;
+	private ParsedChunk processChunk(ByteBuffer chunk, TemperatureAggregates temperatures) {
+		final int bytes = chunk.remaining();
+		final ParsedChunk parsedChunk = fileReader.chunkParser().parse(chunk, cityPartitioner.ownedCities(temperatures));
+		ingestionProgress.chunkParsed(bytes, parsedChunk.rows());
+		temperatureMetrics.chunkParsed(bytes, parsedChunk);
+		return parsedChunk;
 	}
 
-	private List<Temperature> waitForResults(List<Future<List<Temperature>>> futures) {
-		final List<Temperature> allTemperatures = new ArrayList<>();
+	// The file is the source of truth for what was read from it, so a file without readings clears that data
+	// like any other rewrite. Pushed readings are put back by the service.
+	private void updateCityTemperatures(TemperatureAggregates results) {
+		final int previousCities = temperatureService.currentSnapshot().aggregates().size();
+		if (results.isEmpty() && previousCities > 0) {
+			log.warn("Temperature file has no readings, clearing the {} cities loaded before", previousCities);
+			temperatureMetrics.dataCleared();
+		}
+		log.info("Updating city temperature");
+		temperatureService.replaceCityTemperatureData(results);
+	}
 
-		for (Future<List<Temperature>> future : futures) {
-			try {
-				final var temperatures = future.get();
-				allTemperatures.addAll(temperatures);
-			} catch (InterruptedException | ExecutionException e) {
-				throw new FileProcessingException(ERROR_PROCESSING_TEMPERATURE_DATA_IN_PARALLEL, e);
+	private SourceState currentSourceState() {
+		try {
+			final Optional<Path> path = fileReader.sourcePath();
+			if (path.isEmpty() || !Files.exists(path.get())) {
+				return null;
+			}
+			if (Files.isDirectory(path.get())) {
+				return directoryState(path.get());
+			}
+			final var attributes = Files.readAttributes(path.get(), BasicFileAttributes.class);
+			return new SourceState(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+		} catch (IOException e) {
+			log.warn("Could not read the state of the temperature file", e);
+			return null;
+		}
+	}
+
+	// A directory of part-files counts as changed when any part was added, removed, replaced or modified
+	private static SourceState directoryState(Path directory) throws IOException {
+		final List<Object> fileKeys = new ArrayList<>();
+		long size = 0;
+		FileTime lastModified = FileTime.fromMillis(0);
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.sorted().toList()) {
+				final var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				fileKeys.add(attributes.fileKey() != null ? attributes.fileKey() : file.getFileName());
+				size += attributes.size();
+				if (attributes.lastModifiedTime().compareTo(lastModified) > 0) {
+					lastModified = attributes.lastModifiedTime();
+				}
 			}
 		}
+		return new SourceState(fileKeys, size, lastModified);
+	}
 
-		return allTemperatures;
+	private int maxInFlightChunks() {
+		return maxInFlightChunks > 0 ? maxInFlightChunks : Runtime.getRuntime().availableProcessors() * 2;
 	}
 
+	/**
+	 * Folds the chunks straight into a few partial aggregates, which are merged once all chunks are parsed.
+	 * Once {@link #maxInFlightChunks} chunks are pending, the reader is held back until the oldest one is
+	 * parsed, so neither the chunks nor the partial aggregates grow with the size of the file.
+	 */
+	private final class ChunkResults {
+
+		private final Deque<Future<?>> pending = new ArrayDeque<>();
+
+		// A task takes a partial aggregate and returns it when done, so there are never more of them than
+		// tasks running at the same time
+		private final Queue<TemperatureAggregates> idle = new ConcurrentLinkedQueue<>();
+
+		private final int limit = maxInFlightChunks();
 
-	private void updateCityTemperatures(List<Temperature> results) {
-		if (!results.isEmpty()) {
-			log.info("Updating city temperature");
-			temperatureService.updateCityTemperatureData(results);
+		void submit(ByteBuffer chunk) {
+			if (pending.size() >= limit) {
+				get(pending.removeFirst());
+			}
+			pending.addLast(executorService.submit(() -> parse(chunk)));
+		}
+
+		TemperatureAggregates await() {
+			while (!pending.isEmpty()) {
+				get(pending.removeFirst());
+			}
+
+			final TemperatureAggregates merged = idle.isEmpty() ? new TemperatureAggregates() : idle.poll();
+			TemperatureAggregates partial;
+			while ((partial = idle.poll()) != null) {
+				merged.merge(partial);
+			}
+			return merged;
 		}
-	}
 
-	private List<Temperature> processLineToTemperature(String line) {
-		final String[] parts = line.split(Constants.DELIMITER);
+		private ParsedChunk parse(ByteBuffer chunk) {
+			final TemperatureAggregates partial = idle.poll();
+			final TemperatureAggregates temperatures = partial != null ? partial : new TemperatureAggregates();
+			try {
+				return processChunk(chunk, temperatures);
+			} finally {
+				idle.offer(temperatures);
+			}
+		}
 
-		if (parts.length == 3) {
+		private void get(Future<?> future) {
 			try {
-				final String city = parts[0];
-				final LocalDateTime timestamp = LocalDateTime.parse(parts[1], DATE_TIME_FORMATTER);
-				final double temperatureValue = Double.parseDouble(parts[2]);
-
-				return List.of(Temperature.builder()
-						.city(city)
-						.timestamp(timestamp)
-						.temperature(temperatureValue)
-						.build());
-			} catch (Exception e) {
-				return Collections.emptyList();
+				future.get();
+			} catch (InterruptedException | ExecutionException e) {
+				pending.forEach(remaining -> remaining.cancel(true));
+				pending.clear();
+				throw new FileProcessingException(ERROR_PROCESSING_TEMPERATURE_DATA_IN_PARALLEL, e);
 			}
 		}
+	}
+
+	private record PendingSnapshot(TemperatureAggregates aggregates, TemperatureAggregates pushed,
+			ReadCheckpoint checkpoint) {
+	}
+
+	private record SourceState(Object fileKey, long size, FileTime lastModified) {
+	}
+
+	@FunctionalInterface
+	private interface ChunkRead {
 
-		return Collections.emptyList();
+		ReadCheckpoint read() throws IOException;
 	}
 }
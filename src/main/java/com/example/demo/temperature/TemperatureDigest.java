@@ -0,0 +1,266 @@
+package com.example.demo.temperature;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch of temperatures in hundredths of a degree, after the merging t-digest of Dunning
+ * and Ertl. Readings are buffered and folded into weighted centroids whenever the buffer is full, and by
+ * {@link #compact()} before the digest is published. The {@code k1} scale function keeps the centroids near
+ * both tails small, so high and low percentiles stay accurate, and bounds their number by
+ * {@link #COMPRESSION}. A digest therefore holds at most about {@code COMPRESSION} centroids and
+ * {@link #BUFFER_SIZE} buffered readings however many readings it has seen. The buffer only grows as
+ * readings arrive and is released by {@link #compact()} and by merging, since every parsing thread holds a
+ * digest per city and year in its partial aggregates and its cap is paid that many times over.
+ *
+ * <p>Not thread-safe for writing. Reading never modifies the digest, so a published digest can be read
+ * concurrently.
+ */
+final class TemperatureDigest {
+
+	static final int COMPRESSION = 100;
+
+	static final int BUFFER_SIZE = 512;
+
+	private static final Centroids EMPTY = new Centroids(new double[0], new long[0]);
+
+	private static final int[] NO_BUFFER = new int[0];
+
+	private static final int INITIAL_BUFFER_SIZE = 8;
+
+	// Object header and fields, plus the headers of the three arrays
+	private static final long BASE_SIZE_BYTES = 40 + 3 * 16;
+
+	private double[] means = EMPTY.means();
+
+	private long[] weights = EMPTY.weights();
+
+	private int[] buffer = NO_BUFFER;
+
+	private int buffered;
+
+	private long count;
+
+	private int min = Integer.MAX_VALUE;
+
+	private int max = Integer.MIN_VALUE;
+
+	// Centroids sorted by mean
+	private record Centroids(double[] means, long[] weights) {
+
+		int size() {
+			return means.length;
+		}
+	}
+
+	/**
+	 * Rebuilds a digest from the centroids written by {@link #forEachCentroid}.
+	 */
+	static TemperatureDigest of(int min, int max, double[] means, long[] weights) {
+		final TemperatureDigest digest = new TemperatureDigest();
+		digest.means = means;
+		digest.weights = weights;
+		digest.min = min;
+		digest.max = max;
+		for (long weight : weights) {
+			digest.count += weight;
+		}
+		return digest;
+	}
+
+	void add(int temperatureHundredths) {
+		if (buffered == buffer.length) {
+			if (buffer.length < BUFFER_SIZE) {
+				buffer = Arrays.copyOf(buffer, Math.min(BUFFER_SIZE, Math.max(INITIAL_BUFFER_SIZE, buffer.length * 2)));
+			} else {
+				set(centroids());
+			}
+		}
+		buffer[buffered++] = temperatureHundredths;
+		count++;
+		min = Math.min(min, temperatureHundredths);
+		max = Math.max(max, temperatureHundredths);
+	}
+
+	void merge(TemperatureDigest other) {
+		if (other.count == 0) {
+			return;
+		}
+		final long total = count + other.count;
+		set(compress(mergeSorted(centroids(), other.centroids()), total));
+		buffer = NO_BUFFER;
+		count = total;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Folds the buffered readings into the centroids and releases the buffer.
+	 */
+	void compact() {
+		if (buffered > 0) {
+			set(centroids());
+		}
+		buffer = NO_BUFFER;
+	}
+
+	TemperatureDigest copy() {
+		final TemperatureDigest copy = of(min, max, means, weights);
+		copy.buffer = buffered == 0 ? NO_BUFFER : buffer.clone();
+		copy.buffered = buffered;
+		copy.count = count;
+		return copy;
+	}
+
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Estimated temperature in hundredths below which the fraction {@code quantile} of the readings lies,
+	 * interpolating linearly between the centers of neighbouring centroids and the exact minimum and maximum.
+	 */
+	double quantile(double quantile) {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		final Centroids centroids = centroids();
+		final double rank = quantile * count;
+
+		double previousRank = 0;
+		double previousValue = min;
+		double weightBefore = 0;
+		for (int i = 0; i < centroids.size(); i++) {
+			final long weight = centroids.weights()[i];
+			// A single reading sits exactly at its rank, a larger centroid at the middle of its weight
+			final double centerRank = weight == 1 ? weightBefore + 0.5 : weightBefore + weight / 2.0;
+			if (rank < centerRank) {
+				return interpolate(previousRank, previousValue, centerRank, centroids.means()[i], rank);
+			}
+			previousRank = centerRank;
+			previousValue = centroids.means()[i];
+			weightBefore += weight;
+		}
+		return interpolate(previousRank, previousValue, count, max, rank);
+	}
+
+	void forEachCentroid(CentroidConsumer consumer) {
+		final Centroids centroids = centroids();
+		for (int i = 0; i < centroids.size(); i++) {
+			consumer.accept(centroids.means()[i], centroids.weights()[i]);
+		}
+	}
+
+	int centroidCount() {
+		return centroids().size();
+	}
+
+	int min() {
+		return min;
+	}
+
+	int max() {
+		return max;
+	}
+
+	long estimatedSizeBytes() {
+		return BASE_SIZE_BYTES + (long) means.length * (Double.BYTES + Long.BYTES) + (long) buffer.length * Integer.BYTES;
+	}
+
+	private void set(Centroids centroids) {
+		means = centroids.means();
+		weights = centroids.weights();
+		buffered = 0;
+	}
+
+	// The centroids with the buffered readings folded in, without modifying the digest
+	private Centroids centroids() {
+		if (buffered == 0) {
+			return new Centroids(means, weights);
+		}
+		final int[] sorted = Arrays.copyOf(buffer, buffered);
+		Arrays.sort(sorted);
+		final double[] bufferMeans = new double[buffered];
+		final long[] ones = new long[buffered];
+		for (int i = 0; i < buffered; i++) {
+			bufferMeans[i] = sorted[i];
+			ones[i] = 1;
+		}
+		return compress(mergeSorted(new Centroids(means, weights), new Centroids(bufferMeans, ones)), count);
+	}
+
+	private static Centroids mergeSorted(Centroids first, Centroids second) {
+		final int size = first.size() + second.size();
+		final double[] means = new double[size];
+		final long[] weights = new long[size];
+		int i = 0;
+		int j = 0;
+		for (int k = 0; k < size; k++) {
+			if (j == second.size() || (i < first.size() && first.means()[i] <= second.means()[j])) {
+				means[k] = first.means()[i];
+				weights[k] = first.weights()[i++];
+			} else {
+				means[k] = second.means()[j];
+				weights[k] = second.weights()[j++];
+			}
+		}
+		return new Centroids(means, weights);
+	}
+
+	// Merges neighbours while the merged centroid spans at most one unit of the k1 scale. The weight that unit
+	// ends at is computed once per centroid, so the scale function is not evaluated for every neighbour
+	private static Centroids compress(Centroids sorted, long total) {
+		if (sorted.size() == 0) {
+			return sorted;
+		}
+		final double[] means = new double[sorted.size()];
+		final long[] weights = new long[sorted.size()];
+		int size = 0;
+		double mean = sorted.means()[0];
+		long weight = sorted.weights()[0];
+		long weightBefore = 0;
+		double weightLimit = weightLimit(0, total);
+		for (int i = 1; i < sorted.size(); i++) {
+			final long next = sorted.weights()[i];
+			if (weightBefore + weight + next <= weightLimit) {
+				weight += next;
+				mean += (sorted.means()[i] - mean) * next / weight;
+			} else {
+				means[size] = mean;
+				weights[size++] = weight;
+				weightBefore += weight;
+				weightLimit = weightLimit(weightBefore, total);
+				mean = sorted.means()[i];
+				weight = next;
+			}
+		}
+		means[size] = mean;
+		weights[size++] = weight;
+		return new Centroids(Arrays.copyOf(means, size), Arrays.copyOf(weights, size));
+	}
+
+	// The total weight up to which a centroid starting after weightBefore spans at most one unit of the scale
+	private static double weightLimit(long weightBefore, long total) {
+		final double k = k((double) weightBefore / total) + 1;
+		if (k >= COMPRESSION / 4.0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return (Math.sin(k * 2 * Math.PI / COMPRESSION) + 1) / 2 * total;
+	}
+
+	private static double k(double quantile) {
+		return COMPRESSION / (2 * Math.PI) * Math.asin(2 * Math.min(1, quantile) - 1);
+	}
+
+	private static double interpolate(double fromRank, double fromValue, double toRank, double toValue, double rank) {
+		if (toRank <= fromRank) {
+			return toValue;
+		}
+		return fromValue + (toValue - fromValue) * Math.min(1, Math.max(0, (rank - fromRank) / (toRank - fromRank)));
+	}
+
+	@FunctionalInterface
+	interface CentroidConsumer {
+
+		void accept(double meanHundredths, long weight);
+	}
+}
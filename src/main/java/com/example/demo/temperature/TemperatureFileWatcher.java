@@ -0,0 +1,154 @@
+package com.example.demo.temperature;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import com.example.demo.utils.Constants;
+import com.example.demo.utils.exceptions.FileProcessingException;
+import com.example.demo.utils.filereader.FileReaderStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Starts a refresh shortly after the temperature file changes. Events are debounced, and while a refresh
+ * is running at most one more is queued, so a burst of writes results in a single extra refresh.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "temperature.refresh.watch", havingValue = "true")
+@RequiredArgsConstructor
+class TemperatureFileWatcher {
+
+	private final FileReaderStrategy fileReader;
+
+	private final TemperatureDataScheduler temperatureDataScheduler;
+
+	private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(daemonThread("temperature-refresh"));
+
+	private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+	private WatchService watchService;
+
+	/**
+	 * Registers the watch. When that fails, for example because the directory of the file does not exist yet,
+	 * the error is logged and the data is only refreshed on schedule, so the application still starts.
+	 */
+	@PostConstruct
+	void start() {
+		try {
+			final var path = fileReader.sourcePath();
+			if (path.isEmpty()) {
+				log.info("Temperature data is not read from a file on disk, file watching disabled");
+				return;
+			}
+
+			final Path file = path.get().toAbsolutePath();
+			final boolean directory = Files.isDirectory(file);
+			watchService = FileSystems.getDefault().newWatchService();
+			(directory ? file : file.getParent()).register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+			daemonThread("temperature-file-watcher").newThread(() -> watch(directory ? null : file.getFileName())).start();
+			log.info("Watching {} for changes", file);
+		} catch (IOException e) {
+			log.error("Could not watch the temperature file, falling back to the scheduled refresh", e);
+			closeWatchService();
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		closeWatchService();
+		refreshExecutor.shutdownNow();
+	}
+
+	private void closeWatchService() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				log.warn("Closing the temperature file watcher failed", e);
+			}
+			watchService = null;
+		}
+	}
+
+	private void watch(Path fileName) {
+		boolean changed = false;
+		long firstChangeNanos = 0;
+
+		try {
+			while (true) {
+				final WatchKey key = changed
+						? watchService.poll(Constants.FILE_WATCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+						: watchService.take();
+				if (key != null) {
+					if (affects(key, fileName) && !changed) {
+						changed = true;
+						firstChangeNanos = System.nanoTime();
+					}
+					key.reset();
+				}
+
+				final boolean settled = key == null;
+				final boolean overdue = changed
+						&& System.nanoTime() - firstChangeNanos >= TimeUnit.MILLISECONDS.toNanos(Constants.FILE_WATCH_MAX_DELAY_MS);
+				if (changed && (settled || overdue)) {
+					changed = false;
+					requestRefresh();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			log.debug("Temperature file watcher stopped");
+		}
+	}
+
+	void requestRefresh() {
+		if (refreshQueued.compareAndSet(false, true)) {
+			refreshExecutor.execute(() -> {
+				refreshQueued.set(false);
+				try {
+					temperatureDataScheduler.refreshIfChanged();
+				} catch (FileProcessingException e) {
+					log.error("Refreshing temperature data after a file change failed", e);
+				}
+			});
+		}
+	}
+
+	// A null name stands for a watched directory of part-files, where any entry counts
+	private static boolean affects(WatchKey key, Path fileName) {
+		boolean affected = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			affected |= event.kind() == OVERFLOW || fileName == null || fileName.equals(event.context());
+		}
+		return affected;
+	}
+
+	private static ThreadFactory daemonThread(String name) {
+		return runnable -> {
+			final Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -0,0 +1,182 @@
+package com.example.demo.temperature;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Bounded ring buffer of readings pushed over HTTP. Request threads offer whole batches, and a single
+ * drainer folds everything buffered so far into one {@link TemperatureAggregates} and publishes it, so
+ * micro-batches grow with the load instead of every request publishing a snapshot of its own. Unless a
+ * whole batch is waiting, the drainer publishes at most once per {@code temperature.push.publish-interval-ms},
+ * so a steady trickle of small pushes does not publish, and warm up the result cache, every few
+ * milliseconds. Slots are
+ * only freed once their readings are visible to queries, so a full buffer means the drainer has fallen
+ * behind and callers are refused rather than the heap growing.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+class TemperatureIngestionBuffer {
+
+	private final TemperatureService temperatureService;
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${temperature.push.buffer-capacity:262144}")
+	private int capacity;
+
+	@Value("${temperature.push.max-batch-size:65536}")
+	private int maxBatchSize;
+
+	@Value("${temperature.push.publish-interval-ms:200}")
+	private long publishIntervalMs;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = lock.newCondition();
+
+	private String[] cities;
+
+	private int[] dates;
+
+	private int[] temperatures;
+
+	// Sequence numbers of the next reading to drain and of the next free slot
+	private long head;
+
+	private long tail;
+
+	// Only used by the drainer
+	private long lastPublishNanos;
+
+	private Counter refusedBatches;
+
+	private Thread drainer;
+
+	@PostConstruct
+	void start() {
+		cities = new String[capacity];
+		dates = new int[capacity];
+		temperatures = new int[capacity];
+
+		Gauge.builder("temperature.push.buffered", this, TemperatureIngestionBuffer::buffered)
+				.description("Pushed readings not yet visible to queries")
+				.register(meterRegistry);
+		refusedBatches = Counter.builder("temperature.push.refused")
+				.description("Pushed batches refused because the buffer was full")
+				.register(meterRegistry);
+
+		lastPublishNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(publishIntervalMs);
+		drainer = new Thread(this::drain, "temperature-push-drainer");
+		drainer.setDaemon(true);
+		drainer.start();
+	}
+
+	@PreDestroy
+	void stop() {
+		drainer.interrupt();
+	}
+
+	int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Buffers every reading of the batch, or none of them when there is not enough room left.
+	 */
+	boolean offer(ReadingBatch batch) {
+		lock.lock();
+		try {
+			if (batch.size() > capacity - (tail - head)) {
+				refusedBatches.increment();
+				return false;
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				final int slot = slot(tail++);
+				cities[slot] = batch.city(i);
+				dates[slot] = batch.date(i);
+				temperatures[slot] = batch.temperature(i);
+			}
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long buffered() {
+		lock.lock();
+		try {
+			return tail - head;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void drain() {
+		try {
+			while (true) {
+				final long from;
+				final long to;
+				lock.lockInterruptibly();
+				try {
+					while (head == tail) {
+						notEmpty.await();
+					}
+					// Pushes arriving while the interval runs out are published together
+					long remaining = TimeUnit.MILLISECONDS.toNanos(publishIntervalMs) - (System.nanoTime() - lastPublishNanos);
+					while (remaining > 0 && tail - head < maxBatchSize) {
+						remaining = notEmpty.awaitNanos(remaining);
+					}
+					from = head;
+					to = Math.min(tail, head + maxBatchSize);
+				} finally {
+					lock.unlock();
+				}
+
+				// Offers never write to slots between head and tail, so these are read without the lock
+				lastPublishNanos = System.nanoTime();
+				publish(from, to);
+
+				lock.lock();
+				try {
+					head = to;
+				} finally {
+					lock.unlock();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void publish(long from, long to) {
+		final TemperatureAggregates aggregates = new TemperatureAggregates();
+		for (long sequence = from; sequence < to; sequence++) {
+			final int slot = slot(sequence);
+			final int date = dates[slot];
+			aggregates.add(cities[slot], date >>> 9, (date >>> 5) & 0xf, date & 0x1f, temperatures[slot]);
+			cities[slot] = null;
+		}
+
+		try {
+			temperatureService.pushCityTemperatureData(aggregates);
+		} catch (RuntimeException e) {
+			log.error("Publishing {} pushed readings failed, they are dropped", to - from, e);
+		}
+	}
+
+	private int slot(long sequence) {
+		return (int) (sequence % capacity);
+	}
+}
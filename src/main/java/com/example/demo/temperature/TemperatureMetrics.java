@@ -0,0 +1,129 @@
+package com.example.demo.temperature;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import com.example.demo.utils.parser.ParsedChunk;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Micrometer meters of the refreshes and of the in-memory store. A refresh is reported between
+ * {@link #refreshStarted()} and {@link #refreshFinished(String)}; refreshes never overlap.
+ */
+@Log4j2
+@Component
+class TemperatureMetrics {
+
+	static final String FULL = "full";
+
+	static final String INCREMENTAL = "incremental";
+
+	private final MeterRegistry registry;
+
+	private final TemperatureService temperatureService;
+
+	private final Counter bytesParsed;
+
+	private final Counter rowsParsed;
+
+	private final Counter rowsRejected;
+
+	private final Counter dataCleared;
+
+	private final AtomicLong lastRefreshEpochSeconds = new AtomicLong();
+
+	private final AtomicLong lastRefreshBytesPerSecond = new AtomicLong();
+
+	private final AtomicLong refreshBytes = new AtomicLong();
+
+	private final AtomicLong refreshRowsRejected = new AtomicLong();
+
+	private volatile long refreshStartedNanos;
+
+	private volatile long sizedVersion = -1;
+
+	private volatile long sizeBytes;
+
+	TemperatureMetrics(MeterRegistry registry, TemperatureService temperatureService) {
+		this.registry = registry;
+		this.temperatureService = temperatureService;
+
+		bytesParsed = Counter.builder("temperature.ingestion.bytes")
+				.description("Bytes of the temperature file parsed")
+				.baseUnit("bytes")
+				.register(registry);
+		rowsParsed = Counter.builder("temperature.ingestion.rows")
+				.description("Rows of the temperature file parsed")
+				.register(registry);
+		rowsRejected = Counter.builder("temperature.ingestion.rows.rejected")
+				.description("Malformed rows of the temperature file that were skipped")
+				.register(registry);
+		dataCleared = Counter.builder("temperature.refresh.cleared")
+				.description("Full reloads that found no readings and cleared the data loaded before")
+				.register(registry);
+		Gauge.builder("temperature.refresh.last", lastRefreshEpochSeconds, AtomicLong::get)
+				.description("Time of the last successful refresh, in seconds since the epoch")
+				.baseUnit("seconds")
+				.register(registry);
+		Gauge.builder("temperature.refresh.throughput", lastRefreshBytesPerSecond, AtomicLong::get)
+				.description("Bytes per second parsed by the last successful refresh")
+				.baseUnit("bytes")
+				.register(registry);
+		Gauge.builder("temperature.store.cities", temperatureService, service -> service.currentSnapshot().aggregates().size())
+				.description("Cities held in memory")
+				.register(registry);
+		Gauge.builder("temperature.store.size", this, TemperatureMetrics::storeSizeBytes)
+				.description("Estimated heap used by the in-memory aggregates")
+				.baseUnit("bytes")
+				.register(registry);
+	}
+
+	void refreshStarted() {
+		refreshBytes.set(0);
+		refreshRowsRejected.set(0);
+		refreshStartedNanos = System.nanoTime();
+	}
+
+	void chunkParsed(long bytes, ParsedChunk parsedChunk) {
+		refreshBytes.addAndGet(bytes);
+		refreshRowsRejected.addAndGet(parsedChunk.rejectedRows());
+		bytesParsed.increment(bytes);
+		rowsParsed.increment(parsedChunk.rows());
+		rowsRejected.increment(parsedChunk.rejectedRows());
+	}
+
+	void dataCleared() {
+		dataCleared.increment();
+	}
+
+	void refreshFinished(String mode) {
+		final long durationNanos = System.nanoTime() - refreshStartedNanos;
+		Timer.builder("temperature.refresh")
+				.description("Duration of successful refreshes")
+				.tag("mode", mode)
+				.publishPercentileHistogram()
+				.register(registry)
+				.record(durationNanos, TimeUnit.NANOSECONDS);
+
+		lastRefreshEpochSeconds.set(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+		// In floating point, as bytes times nanoseconds per second overflows a long beyond about 9 GB
+		lastRefreshBytesPerSecond.set(Math.round(refreshBytes.get() / (Math.max(1, durationNanos) / 1e9)));
+		if (refreshRowsRejected.get() > 0) {
+			log.warn("Skipped {} malformed rows of the temperature file", refreshRowsRejected.get());
+		}
+	}
+
+	// Estimating walks all cities, so it is only redone once a new snapshot has been published
+	private double storeSizeBytes() {
+		final TemperatureSnapshot snapshot = temperatureService.currentSnapshot();
+		if (snapshot.version() != sizedVersion) {
+			sizeBytes = snapshot.aggregates().estimatedSizeBytes();
+			sizedVersion = snapshot.version();
+		}
+		return sizeBytes;
+	}
+}
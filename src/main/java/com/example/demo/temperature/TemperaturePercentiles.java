@@ -0,0 +1,17 @@
+package com.example.demo.temperature;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Estimated percentiles of the readings of one year, keyed like {@code p50} or {@code p99.9}. Temperatures
+ * are in degrees, rounded to one decimal like {@link TemperatureResult}.
+ */
+record TemperaturePercentiles(int year,
+							  long count,
+							  Map<String, Double> percentiles) {
+
+	static String key(double percentile) {
+		return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+	}
+}
@@ -0,0 +1,15 @@
+package com.example.demo.temperature;
+
+import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Average of the readings between two dates, both inclusive. The average is {@code null} when there are
+ * no readings in the range.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record TemperatureRangeResult(LocalDate from,
+							  LocalDate to,
+							  long count,
+							  Double averageTemperature) {
+}
@@ -0,0 +1,121 @@
+package com.example.demo.temperature;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-city query results keyed by the snapshot version they were computed from, so an entry can never
+ * outlive its data. Each entry also holds the results rendered as JSON, so serving a hit serializes
+ * nothing. Entries are weighed by the number of results they hold, up to a total of
+ * {@code temperature.cache.max-weight}. When a new snapshot is published, the
+ * hottest keys are recomputed and rendered against it before the old entries are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+class TemperatureResultCache {
+
+	static final String CACHE_NAME = "cityTemperatures";
+
+	private final MeterRegistry meterRegistry;
+
+	private final ObjectMapper objectMapper;
+
+	@Value("${temperature.cache.spec:recordStats}")
+	private String spec;
+
+	@Value("${temperature.cache.max-weight:1000000}")
+	private long maxWeight;
+
+	@Value("${temperature.cache.warm-up-size:1000}")
+	private int warmUpSize;
+
+	private Cache<Key, Entry> cache;
+
+	enum ResultType {
+		YEARLY_AVERAGES(CityTemperatureAggregate::yearlyAverages),
+		YEARLY_STATISTICS(CityTemperatureAggregate::yearlyStatistics),
+		MONTHLY_STATISTICS(CityTemperatureAggregate::monthlyStatistics);
+
+		private final Function<CityTemperatureAggregate, List<?>> compute;
+
+		ResultType(Function<CityTemperatureAggregate, List<?>> compute) {
+			this.compute = compute;
+		}
+	}
+
+	private record Key(long version, ResultType type, String city) {
+	}
+
+	private record Entry(List<?> results, byte[] json) {
+	}
+
+	@PostConstruct
+	void init() {
+		try {
+			cache = Caffeine.from(CaffeineSpec.parse(spec))
+					.maximumWeight(maxWeight)
+					.<Key, Entry>weigher((key, entry) -> 1 + entry.results().size())
+					.build();
+		} catch (IllegalStateException e) {
+			throw new IllegalStateException("temperature.cache.spec must not bound the cache size, "
+					+ "set temperature.cache.max-weight instead: " + spec, e);
+		}
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> List<T> get(TemperatureSnapshot snapshot, ResultType type, String city) {
+		return (List<T>) entry(snapshot, type, city).results();
+	}
+
+	/**
+	 * The same results as {@link #get}, as UTF-8 JSON. The array is shared and must not be modified.
+	 */
+	byte[] getJson(TemperatureSnapshot snapshot, ResultType type, String city) {
+		return entry(snapshot, type, city).json();
+	}
+
+	/**
+	 * Recomputes the most frequently used entries against the new snapshot and drops all others.
+	 */
+	void warmUp(TemperatureSnapshot snapshot) {
+		final Set<Key> hottest = cache.policy().eviction()
+				.map(eviction -> eviction.hottest(warmUpSize).keySet())
+				.orElse(Set.of());
+
+		cache.invalidateAll();
+		for (Key key : hottest) {
+			entry(snapshot, key.type(), key.city());
+		}
+	}
+
+	private Entry entry(TemperatureSnapshot snapshot, ResultType type, String city) {
+		return cache.get(new Key(snapshot.version(), type, city), key -> compute(snapshot, key));
+	}
+
+	private Entry compute(TemperatureSnapshot snapshot, Key key) {
+		final CityTemperatureAggregate cityTemperatures = snapshot.aggregates().get(key.city());
+		final List<?> results = cityTemperatures == null
+				? Collections.emptyList()
+				: key.type().compute.apply(cityTemperatures);
+
+		try {
+			return new Entry(results, objectMapper.writeValueAsBytes(results));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not render temperature results of " + key.city(), e);
+		}
+	}
+}
@@ -1,10 +1,66 @@
 package com.example.demo.temperature;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 interface TemperatureService {
 
 	void updateCityTemperatureData(List<Temperature> temperatures);
 
+	void updateCityTemperatureData(TemperatureAggregates aggregates);
+
+	/**
+	 * Publishes readings pushed over HTTP like {@link #updateCityTemperatureData(TemperatureAggregates)}, and
+	 * also keeps them apart in {@link TemperatureSnapshot#pushed()}, since the file does not have them.
+	 */
+	void pushCityTemperatureData(TemperatureAggregates aggregates);
+
+	/**
+	 * Replaces the data read from the file. Readings pushed so far are merged back in.
+	 */
+	void replaceCityTemperatureData(TemperatureAggregates aggregates);
+
+	/**
+	 * Publishes data restored from a stored snapshot, where {@code aggregates} already include {@code pushed}.
+	 * Readings pushed before the restore are merged into both.
+	 */
+	void restoreCityTemperatureData(TemperatureAggregates aggregates, TemperatureAggregates pushed);
+
 	List<TemperatureResult> getYearlyAverageTemperature(String city);
+
+	List<TemperatureStatistics> getTemperatureStatistics(String city, Granularity granularity);
+
+	/**
+	 * {@link #getYearlyAverageTemperature} rendered as JSON, with the version of the snapshot it was read from.
+	 */
+	RenderedResult getYearlyAverageTemperatureJson(String city);
+
+	/**
+	 * {@link #getTemperatureStatistics} rendered as JSON, with the version of the snapshot it was read from.
+	 */
+	RenderedResult getTemperatureStatisticsJson(String city, Granularity granularity);
+
+	/**
+	 * Average of the readings from {@code from} to {@code to}, both inclusive.
+	 */
+	TemperatureRangeResult getAverageTemperature(String city, LocalDate from, LocalDate to);
+
+	/**
+	 * Estimated percentiles, each between 0 and 100, of the readings of every year.
+	 */
+	List<TemperaturePercentiles> getTemperaturePercentiles(String city, List<Double> percentiles);
+
+	/**
+	 * Resolves all cities against the same snapshot. Unknown cities get an empty list.
+	 */
+	List<CityTemperatures> getYearlyAverageTemperatures(Collection<String> cities);
+
+	/**
+	 * Passes every city of the current snapshot, in alphabetical order, to the consumer one at a time.
+	 */
+	void forEachYearlyAverageTemperature(Consumer<CityTemperatures> consumer);
+
+	TemperatureSnapshot currentSnapshot();
 }
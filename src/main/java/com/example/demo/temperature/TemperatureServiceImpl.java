@@ -1,73 +1,245 @@
 package com.example.demo.temperature;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import org.springframework.cache.annotation.Cacheable;
+import java.util.Queue;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
 
 @Service
+@RequiredArgsConstructor
 class TemperatureServiceImpl implements TemperatureService {
 
-	private final Map<String, List<Temperature>> cityTemperatureData = new ConcurrentHashMap<>();
+	private final TemperatureResultCache resultCache;
+
+	private final AtomicReference<TemperatureSnapshot> snapshot = new AtomicReference<>(TemperatureSnapshot.EMPTY);
+
+	private final ReentrantLock publishLock = new ReentrantLock();
+
+	private final Queue<PendingUpdate> pendingUpdates = new ConcurrentLinkedQueue<>();
 
 	@Override
-	public synchronized void updateCityTemperatureData(List<Temperature> temperatures) {
+	public void updateCityTemperatureData(List<Temperature> temperatures) {
+		final TemperatureAggregates aggregates = new TemperatureAggregates();
 		for (Temperature temperature : temperatures) {
-			cityTemperatureData
-					.computeIfAbsent(temperature.city(), cityKey -> new ArrayList<>())
-					.add(temperature);
+			final LocalDateTime timestamp = temperature.timestamp();
+			aggregates.add(temperature.city(), timestamp.getYear(), timestamp.getMonthValue(), timestamp.getDayOfMonth(),
+					(int) Math.round(temperature.temperature() * 100));
+		}
+		updateCityTemperatureData(aggregates);
+	}
+
+	/**
+	 * Updates from many threads are combined: whichever writer holds the lock publishes every update queued
+	 * so far in one new snapshot, so concurrent writers share a single copy instead of queueing for one
+	 * each. Returns once the update is visible to readers. When publishing the combined updates fails, none
+	 * of them is published and the failure is thrown to each of their writers.
+	 */
+	@Override
+	public void updateCityTemperatureData(TemperatureAggregates aggregates) {
+		update(new PendingUpdate(aggregates, false));
+	}
+
+	@Override
+	public void pushCityTemperatureData(TemperatureAggregates aggregates) {
+		update(new PendingUpdate(aggregates, true));
+	}
+
+	@Override
+	public void replaceCityTemperatureData(TemperatureAggregates aggregates) {
+		// Updates come out of mergedWith compacted already; a replacement may still hold buffered readings
+		aggregates.compactDigests();
+		publishLock.lock();
+		try {
+			// The file does not have the pushed readings, so they are put back
+			final TemperatureAggregates pushed = snapshot.get().pushed();
+			aggregates.merge(pushed);
+			publish(aggregates, pushed);
+		} finally {
+			publishLock.unlock();
+		}
+	}
+
+	@Override
+	public void restoreCityTemperatureData(TemperatureAggregates aggregates, TemperatureAggregates pushed) {
+		aggregates.compactDigests();
+		pushed.compactDigests();
+		publishLock.lock();
+		try {
+			final TemperatureAggregates pushedBefore = snapshot.get().pushed();
+			aggregates.merge(pushedBefore);
+			pushed.merge(pushedBefore);
+			publish(aggregates, pushed);
+		} finally {
+			publishLock.unlock();
+		}
+	}
+
+	private void update(PendingUpdate update) {
+		pendingUpdates.add(update);
+		publishLock.lock();
+		try {
+			if (!update.published) {
+				publishPendingUpdates();
+			}
+		} finally {
+			publishLock.unlock();
+		}
+		if (update.failure != null) {
+			throw update.failure;
+		}
+	}
+
+	private void publishPendingUpdates() {
+		final List<PendingUpdate> updates = new ArrayList<>();
+		PendingUpdate update;
+		while ((update = pendingUpdates.poll()) != null) {
+			updates.add(update);
+		}
+
+		RuntimeException failure = null;
+		try {
+			final TemperatureSnapshot current = snapshot.get();
+			final List<TemperatureAggregates> pushes = updates.stream()
+					.filter(PendingUpdate::pushed)
+					.map(PendingUpdate::aggregates)
+					.toList();
+			publish(current.aggregates().mergedWith(updates.stream().map(PendingUpdate::aggregates).toList()),
+					pushes.isEmpty() ? current.pushed() : current.pushed().mergedWith(pushes));
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		for (PendingUpdate published : updates) {
+			published.published = true;
+			published.failure = failure;
 		}
 	}
 
-	@Cacheable(value = "cityTemperatures", key = "#city")
 	@Override
 	public List<TemperatureResult> getYearlyAverageTemperature(String city) {
-		final List<Temperature> cityTemperatures = cityTemperatureData.get(city);
+		return resultCache.get(snapshot.get(), TemperatureResultCache.ResultType.YEARLY_AVERAGES, city);
+	}
 
-		if (cityTemperatures == null || cityTemperatures.isEmpty()) {
+	@Override
+	public List<TemperatureStatistics> getTemperatureStatistics(String city, Granularity granularity) {
+		return resultCache.get(snapshot.get(), statisticsType(granularity), city);
+	}
+
+	@Override
+	public RenderedResult getYearlyAverageTemperatureJson(String city) {
+		return rendered(TemperatureResultCache.ResultType.YEARLY_AVERAGES, city);
+	}
+
+	@Override
+	public RenderedResult getTemperatureStatisticsJson(String city, Granularity granularity) {
+		return rendered(statisticsType(granularity), city);
+	}
+
+	@Override
+	public TemperatureRangeResult getAverageTemperature(String city, LocalDate from, LocalDate to) {
+		final CityTemperatureAggregate cityTemperatures = snapshot.get().aggregates().get(city);
+
+		if (cityTemperatures == null) {
+			return new TemperatureRangeResult(from, to, 0, null);
+		}
+
+		return cityTemperatures.rangeAverage(from, to);
+	}
+
+	@Override
+	public List<TemperaturePercentiles> getTemperaturePercentiles(String city, List<Double> percentiles) {
+		final CityTemperatureAggregate cityTemperatures = snapshot.get().aggregates().get(city);
+
+		if (cityTemperatures == null) {
 			return Collections.emptyList();
 		}
 
-		return cityTemperatures.stream()
-				.collect(groupTemperaturesByYear())
-				.entrySet()
-				.stream()
-				.map(this::buildResult)
-				.collect(Collectors.toList());
+		return cityTemperatures.yearlyPercentiles(percentiles);
 	}
 
-	private TemperatureResult buildResult(Entry<Integer, List<Double>> entry) {
-		final int year = entry.getKey();
-		final List<Double> temps = entry.getValue();
-		final double averageTemperature = calculateAverage(temps);
-		return new TemperatureResult(year, averageTemperature);
+	@Override
+	public List<CityTemperatures> getYearlyAverageTemperatures(Collection<String> cities) {
+		final TemperatureAggregates aggregates = snapshot.get().aggregates();
+		final List<CityTemperatures> results = new ArrayList<>(cities.size());
+
+		for (String city : cities) {
+			results.add(new CityTemperatures(city, yearlyAverages(aggregates, city)));
+		}
+
+		return results;
+	}
+
+	@Override
+	public void forEachYearlyAverageTemperature(Consumer<CityTemperatures> consumer) {
+		final TemperatureAggregates aggregates = snapshot.get().aggregates();
+
+		aggregates.cities().stream()
+				.sorted()
+				.forEach(city -> consumer.accept(new CityTemperatures(city, yearlyAverages(aggregates, city))));
 	}
 
-	private double calculateAverage(List<Double> temps) {
-		double average = temps.stream()
-				.mapToDouble(Double::doubleValue)
-				.average()
-				.orElse(0.0);
+	@Override
+	public TemperatureSnapshot currentSnapshot() {
+		return snapshot.get();
+	}
+
+	private RenderedResult rendered(TemperatureResultCache.ResultType resultType, String city) {
+		final TemperatureSnapshot current = snapshot.get();
+		return new RenderedResult(current.version(), resultCache.getJson(current, resultType, city));
+	}
 
-		return BigDecimal.valueOf(average)
-				.setScale(1, RoundingMode.HALF_UP)
-				.doubleValue();
+	private static TemperatureResultCache.ResultType statisticsType(Granularity granularity) {
+		return granularity == Granularity.MONTH
+				? TemperatureResultCache.ResultType.MONTHLY_STATISTICS
+				: TemperatureResultCache.ResultType.YEARLY_STATISTICS;
 	}
 
-	private Collector<Temperature, ?, TreeMap<Integer, List<Double>>> groupTemperaturesByYear() {
-		return Collectors.groupingBy(
-				temp -> temp.timestamp().getYear(),
-				TreeMap::new,
-				Collectors.mapping(Temperature::temperature, Collectors.toList())
-		);
+	private static List<TemperatureResult> yearlyAverages(TemperatureAggregates aggregates, String city) {
+		final CityTemperatureAggregate cityTemperatures = aggregates.get(city);
+
+		if (cityTemperatures == null) {
+			return Collections.emptyList();
+		}
+
+		return cityTemperatures.yearlyAverages();
+	}
+
+	private void publish(TemperatureAggregates aggregates, TemperatureAggregates pushed) {
+		final TemperatureSnapshot next = snapshot.get().next(aggregates, pushed);
+		snapshot.set(next);
+		resultCache.warmUp(next);
+	}
+
+	// Only read and written while holding the publish lock
+	private static final class PendingUpdate {
+
+		private final TemperatureAggregates aggregates;
+
+		private final boolean pushed;
+
+		private boolean published;
+
+		private RuntimeException failure;
+
+		PendingUpdate(TemperatureAggregates aggregates, boolean pushed) {
+			this.aggregates = aggregates;
+			this.pushed = pushed;
+		}
+
+		TemperatureAggregates aggregates() {
+			return aggregates;
+		}
+
+		boolean pushed() {
+			return pushed;
+		}
 	}
 }
@@ -0,0 +1,24 @@
+package com.example.demo.temperature;
+
+/**
+ * Aggregated temperature data as published to readers. The aggregates are never modified once the
+ * snapshot is published; every update builds a new snapshot with a higher version. The readings pushed
+ * over HTTP are included in {@code aggregates} and also kept on their own in {@code pushed}, so that
+ * reloading the file, which does not have them, can put them back.
+ */
+record TemperatureSnapshot(long version, TemperatureAggregates aggregates, TemperatureAggregates pushed) {
+
+	static final TemperatureSnapshot EMPTY = new TemperatureSnapshot(0, new TemperatureAggregates());
+
+	TemperatureSnapshot(long version, TemperatureAggregates aggregates) {
+		this(version, aggregates, new TemperatureAggregates());
+	}
+
+	TemperatureSnapshot next(TemperatureAggregates newAggregates) {
+		return next(newAggregates, pushed);
+	}
+
+	TemperatureSnapshot next(TemperatureAggregates newAggregates, TemperatureAggregates newPushed) {
+		return new TemperatureSnapshot(version + 1, newAggregates, newPushed);
+	}
+}
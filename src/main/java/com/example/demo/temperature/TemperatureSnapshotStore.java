@@ -0,0 +1,192 @@
+package com.example.demo.temperature;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.example.demo.utils.filereader.ReadCheckpoint;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Persists the aggregated data together with the checkpoint of the source file it was read up to, so that
+ * a restarted service can serve data right away and only has to catch up on what was appended since. The
+ * readings pushed over HTTP are saved a second time on their own, since a full reload of the file needs
+ * them to be put back.
+ *
+ * <p>Layout: magic, format version, checkpoint (presence flag, offset, head length, head checksum,
+ * trailing newline flag), the cities of all data, then the cities of the pushed readings. Each list of
+ * cities is a city count, then per city its UTF-8 name, month count, a
+ * {@code (year, month, sum, count, min, max)} entry per month with readings, day count, a
+ * {@code (epoch day, sum, count)} entry per day with readings, digest count and per year with readings its
+ * {@code (year, min, max, centroid count)} followed by a {@code (mean, weight)} entry per centroid.
+ */
+@Log4j2
+@Component
+class TemperatureSnapshotStore {
+
+	private static final int MAGIC = 0x54534e50; // "TSNP"
+
+	private static final int FORMAT_VERSION = 5;
+
+	private static final int MONTH_ENTRY_SIZE = Integer.BYTES + 1 + 2 * Long.BYTES + 2 * Integer.BYTES;
+
+	private static final int DAY_ENTRY_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+	private static final int DIGEST_HEADER_SIZE = 4 * Integer.BYTES;
+
+	private static final int CENTROID_ENTRY_SIZE = Double.BYTES + Long.BYTES;
+
+	@Value("${temperature.snapshot.file:}")
+	private String snapshotFile;
+
+	record StoredSnapshot(TemperatureAggregates aggregates, TemperatureAggregates pushed, ReadCheckpoint checkpoint) {
+	}
+
+	void save(TemperatureAggregates aggregates, TemperatureAggregates pushed, ReadCheckpoint checkpoint) {
+		if (snapshotFile.isBlank()) {
+			return;
+		}
+
+		final Path target = Path.of(snapshotFile);
+		final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(FORMAT_VERSION);
+			writeCheckpoint(output, checkpoint);
+			writeCities(output, aggregates);
+			writeCities(output, pushed);
+		} catch (IOException e) {
+			log.warn("Could not write temperature snapshot {}", target, e);
+			return;
+		}
+
+		try {
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("Could not replace temperature snapshot {}", target, e);
+		}
+	}
+
+	Optional<StoredSnapshot> load() {
+		if (snapshotFile.isBlank() || !Files.isRegularFile(Path.of(snapshotFile))) {
+			return Optional.empty();
+		}
+
+		try (FileChannel channel = FileChannel.open(Path.of(snapshotFile), StandardOpenOption.READ)) {
+			final ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				log.warn("Ignoring temperature snapshot {} with an unknown format", snapshotFile);
+				return Optional.empty();
+			}
+
+			final ReadCheckpoint checkpoint = readCheckpoint(buffer);
+			final TemperatureAggregates aggregates = readCities(buffer);
+			final TemperatureAggregates pushed = readCities(buffer);
+			return Optional.of(new StoredSnapshot(aggregates, pushed, checkpoint));
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			log.warn("Ignoring unreadable temperature snapshot {}", snapshotFile, e);
+			return Optional.empty();
+		}
+	}
+
+	private static void writeCheckpoint(DataOutputStream output, ReadCheckpoint checkpoint) throws IOException {
+		output.writeBoolean(checkpoint != null);
+		if (checkpoint != null) {
+			output.writeLong(checkpoint.offset());
+			output.writeInt(checkpoint.headLength());
+			output.writeLong(checkpoint.headChecksum());
+			output.writeBoolean(checkpoint.endsWithNewline());
+		}
+	}
+
+	private static ReadCheckpoint readCheckpoint(ByteBuffer buffer) {
+		if (buffer.get() == 0) {
+			return null;
+		}
+		return new ReadCheckpoint(buffer.getLong(), buffer.getInt(), buffer.getLong(), buffer.get() != 0);
+	}
+
+	private static void writeCities(DataOutputStream output, TemperatureAggregates aggregates) throws IOException {
+		output.writeInt(aggregates.size());
+		for (String city : aggregates.cities()) {
+			writeCity(output, city, aggregates.get(city));
+		}
+	}
+
+	private static TemperatureAggregates readCities(ByteBuffer buffer) {
+		final TemperatureAggregates aggregates = new TemperatureAggregates();
+		final int cityCount = buffer.getInt();
+		for (int i = 0; i < cityCount; i++) {
+			readCity(buffer, aggregates);
+		}
+		return aggregates;
+	}
+
+	private static void writeCity(DataOutputStream output, String city, CityTemperatureAggregate aggregate)
+			throws IOException {
+		final byte[] name = city.getBytes(StandardCharsets.UTF_8);
+		final int monthCount = aggregate.monthCount();
+		final int dayCount = aggregate.dayCount();
+		final int[] digestSize = new int[2];
+		aggregate.forEachDigest((year, digest) -> {
+			digestSize[0]++;
+			digestSize[1] += DIGEST_HEADER_SIZE + digest.centroidCount() * CENTROID_ENTRY_SIZE;
+		});
+		final ByteBuffer buffer = ByteBuffer.allocate(4 * Integer.BYTES + name.length + monthCount * MONTH_ENTRY_SIZE
+				+ dayCount * DAY_ENTRY_SIZE + digestSize[1]);
+
+		buffer.putInt(name.length).put(name).putInt(monthCount);
+		aggregate.forEachMonth((year, month, sum, count, min, max) ->
+				buffer.putInt(year).put((byte) month).putLong(sum).putLong(count).putInt(min).putInt(max));
+		buffer.putInt(dayCount);
+		aggregate.forEachDay((epochDay, sum, count) -> buffer.putInt((int) epochDay).putLong(sum).putInt(count));
+		buffer.putInt(digestSize[0]);
+		aggregate.forEachDigest((year, digest) -> {
+			buffer.putInt(year).putInt(digest.min()).putInt(digest.max()).putInt(digest.centroidCount());
+			digest.forEachCentroid((mean, weight) -> buffer.putDouble(mean).putLong(weight));
+		});
+		output.write(buffer.array());
+	}
+
+	private static void readCity(ByteBuffer buffer, TemperatureAggregates aggregates) {
+		final byte[] name = new byte[buffer.getInt()];
+		buffer.get(name);
+		final String city = new String(name, StandardCharsets.UTF_8);
+
+		final int monthCount = buffer.getInt();
+		for (int i = 0; i < monthCount; i++) {
+			aggregates.add(city, buffer.getInt(), buffer.get(), buffer.getLong(), buffer.getLong(), buffer.getInt(),
+					buffer.getInt());
+		}
+
+		final int dayCount = buffer.getInt();
+		for (int i = 0; i < dayCount; i++) {
+			aggregates.addDay(city, buffer.getInt(), buffer.getLong(), buffer.getInt());
+		}
+
+		final int digestCount = buffer.getInt();
+		for (int i = 0; i < digestCount; i++) {
+			final int year = buffer.getInt();
+			final int min = buffer.getInt();
+			final int max = buffer.getInt();
+			final double[] means = new double[buffer.getInt()];
+			final long[] weights = new long[means.length];
+			for (int j = 0; j < means.length; j++) {
+				means[j] = buffer.getDouble();
+				weights[j] = buffer.getLong();
+			}
+			aggregates.addDigest(city, year, TemperatureDigest.of(min, max, means, weights));
+		}
+	}
+}
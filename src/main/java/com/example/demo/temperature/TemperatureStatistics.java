@@ -0,0 +1,16 @@
+package com.example.demo.temperature;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Statistics of one year, or of one month when {@code month} is set. Temperatures are in degrees; the
+ * average is rounded to one decimal like {@link TemperatureResult}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record TemperatureStatistics(int year,
+							 Integer month,
+							 long count,
+							 double averageTemperature,
+							 double minTemperature,
+							 double maxTemperature) {
+}
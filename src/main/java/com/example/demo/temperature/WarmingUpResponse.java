@@ -0,0 +1,5 @@
+package com.example.demo.temperature;
+
+record WarmingUpResponse(String status, String message, IngestionProgress.Status progress) {
+
+}
@@ -2,9 +2,11 @@ package com.example.demo.utils;
 
 public class Constants {
 
-	public static final int THREAD_POOL_SIZE = 10;
-
 	public static final int FILE_READ_INTERVAL_MS = 180000;
 
+	public static final int FILE_WATCH_DEBOUNCE_MS = 200;
+
+	public static final int FILE_WATCH_MAX_DELAY_MS = 1000;
+
 	public static final String DELIMITER = ";";
 }
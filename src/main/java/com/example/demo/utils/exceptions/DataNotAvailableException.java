@@ -0,0 +1,8 @@
+package com.example.demo.utils.exceptions;
+
+public class DataNotAvailableException extends RuntimeException {
+
+	public DataNotAvailableException(String message) {
+		super(message);
+	}
+}
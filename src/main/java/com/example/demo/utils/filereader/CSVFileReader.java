@@ -2,14 +2,20 @@ package com.example.demo.utils.filereader;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.function.Consumer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 import lombok.RequiredArgsConstructor;
 
 @Component
+@Conditional(FileReaderSelection.Buffered.class)
 @RequiredArgsConstructor
 public final class CSVFileReader implements FileReaderStrategy {
 
@@ -29,4 +35,21 @@ public final class CSVFileReader implements FileReaderStrategy {
 			}
 		}
 	}
+
+	@Override
+	public ReadCheckpoint readChunks(Consumer<ByteBuffer> chunkConsumer) throws IOException {
+		final var resource = resourceLoader.getResource(filePath);
+
+		try (InputStream inputStream = resource.getInputStream()) {
+			LineChunks.read(inputStream, chunkConsumer);
+		}
+
+		return null;
+	}
+
+	@Override
+	public Optional<Path> sourcePath() throws IOException {
+		final var resource = resourceLoader.getResource(filePath);
+		return resource.isFile() ? Optional.of(resource.getFile().toPath()) : Optional.empty();
+	}
 }
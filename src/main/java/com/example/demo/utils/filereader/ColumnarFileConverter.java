@@ -0,0 +1,220 @@
+package com.example.demo.utils.filereader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.example.demo.utils.parser.ColumnarBlockParser;
+import com.example.demo.utils.parser.ParsedChunk;
+import com.example.demo.utils.parser.TemperatureLineParser;
+import com.example.demo.utils.parser.TemperatureRecordHandler;
+
+/**
+ * Converts a CSV file, plain or gzip/zstd compressed, to the columnar binary format read by
+ * {@link ColumnarFileReader}. Rows are sorted by city within each block, which the aggregation does not
+ * depend on. Readings outside the range of a {@code short} of hundredths are skipped as rejected.
+ *
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.example.demo.utils.filereader.ColumnarFileConverter \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher temperatures.csv temperatures.tcol
+ * </pre>
+ */
+public final class ColumnarFileConverter {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	public record Conversion(long rows, long rejectedRows, long bytesWritten) {
+	}
+
+	private ColumnarFileConverter() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: ColumnarFileConverter <input.csv[.gz|.zst]> <output" + FileReaderSelection.COLUMNAR_EXTENSION + ">");
+			System.exit(1);
+		}
+		final Path input = Path.of(args[0]);
+		final Conversion conversion = convert(input, Path.of(args[1]));
+		System.out.printf("Converted %d rows (%d rejected): %d bytes -> %d bytes%n", conversion.rows(),
+				conversion.rejectedRows(), Files.size(input), conversion.bytesWritten());
+	}
+
+	/**
+	 * Writes the readings of {@code csv} to {@code target}, replacing it only once the conversion succeeded.
+	 */
+	public static Conversion convert(Path csv, Path target) throws IOException {
+		final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+		try {
+			final BlockWriter writer;
+			try (InputStream input = Decompression.decompress(Files.newInputStream(csv));
+				 OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE)) {
+				writer = new BlockWriter(output);
+				LineChunks.read(input, writer::parse);
+				writer.finish();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			return new Conversion(writer.rows, writer.rejectedRows, Files.size(target));
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static final class BlockWriter implements TemperatureRecordHandler {
+
+		private final OutputStream output;
+
+		private final Map<String, Integer> cityIds = new HashMap<>();
+
+		private final List<byte[]> cityNames = new ArrayList<>();
+
+		private final int[] rowCities = new int[ColumnarBlockParser.MAX_BLOCK_ROWS];
+
+		private final int[] rowDays = new int[ColumnarBlockParser.MAX_BLOCK_ROWS];
+
+		private final short[] rowTemperatures = new short[ColumnarBlockParser.MAX_BLOCK_ROWS];
+
+		private int blockRows;
+
+		private byte[] lastCityBytes = new byte[64];
+
+		private int lastCityLength = -1;
+
+		private int lastCityId;
+
+		private long rows;
+
+		private long rejectedRows;
+
+		BlockWriter(OutputStream output) throws IOException {
+			this.output = output;
+			final ByteBuffer header = ByteBuffer.allocate(ColumnarBlockParser.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(ColumnarBlockParser.MAGIC).putInt(ColumnarBlockParser.FORMAT_VERSION);
+			output.write(header.array());
+		}
+
+		void parse(ByteBuffer chunk) {
+			final ParsedChunk parsedChunk = TemperatureLineParser.parseChunk(chunk, this);
+			rejectedRows += parsedChunk.rejectedRows();
+		}
+
+		@Override
+		public void accept(ByteBuffer buffer, int cityStart, int cityEnd, int year, int month, int day,
+				int temperatureHundredths) {
+			if (temperatureHundredths < Short.MIN_VALUE || temperatureHundredths > Short.MAX_VALUE
+					|| cityEnd - cityStart > Character.MAX_VALUE) {
+				rejectedRows++;
+				return;
+			}
+			if (!isLastCity(buffer, cityStart, cityEnd)) {
+				rememberLastCity(buffer, cityStart, cityEnd);
+			}
+
+			rowCities[blockRows] = lastCityId;
+			rowDays[blockRows] = (int) LocalDate.of(year, month, day).toEpochDay();
+			rowTemperatures[blockRows] = (short) temperatureHundredths;
+			rows++;
+			if (++blockRows == ColumnarBlockParser.MAX_BLOCK_ROWS) {
+				writeBlock();
+			}
+		}
+
+		void finish() {
+			if (blockRows > 0) {
+				writeBlock();
+			}
+		}
+
+		// Counting sort by city, so each city of the block gets a dense index and its rows are adjacent
+		private void writeBlock() {
+			final int[] localIds = new int[cityNames.size()];
+			Arrays.fill(localIds, -1);
+			final List<byte[]> blockCities = new ArrayList<>();
+			final int[] offsets = new int[Math.min(cityNames.size(), blockRows)];
+			for (int row = 0; row < blockRows; row++) {
+				final int city = rowCities[row];
+				if (localIds[city] < 0) {
+					localIds[city] = blockCities.size();
+					blockCities.add(cityNames.get(city));
+				}
+				offsets[localIds[city]]++;
+			}
+
+			int namesSize = 0;
+			for (int local = 0, offset = 0; local < blockCities.size(); local++) {
+				final int rowCount = offsets[local];
+				offsets[local] = offset;
+				offset += rowCount;
+				namesSize += Character.BYTES + blockCities.get(local).length;
+			}
+
+			final int blockLength = 2 * Integer.BYTES + namesSize + blockRows * ColumnarBlockParser.ROW_SIZE;
+			final ByteBuffer block = ByteBuffer.allocate(Integer.BYTES + blockLength).order(ByteOrder.LITTLE_ENDIAN);
+			block.putInt(blockLength).putInt(blockCities.size());
+			for (byte[] name : blockCities) {
+				block.putChar((char) name.length).put(name);
+			}
+			block.putInt(blockRows);
+
+			final int cities = block.position();
+			final int days = cities + blockRows * Character.BYTES;
+			final int temperatures = days + blockRows * Integer.BYTES;
+			for (int row = 0; row < blockRows; row++) {
+				final int local = localIds[rowCities[row]];
+				final int sorted = offsets[local]++;
+				block.putChar(cities + sorted * Character.BYTES, (char) local);
+				block.putInt(days + sorted * Integer.BYTES, rowDays[row]);
+				block.putShort(temperatures + sorted * Short.BYTES, rowTemperatures[row]);
+			}
+
+			try {
+				output.write(block.array());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			blockRows = 0;
+		}
+
+		private boolean isLastCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+			if (cityEnd - cityStart != lastCityLength) {
+				return false;
+			}
+			for (int i = 0; i < lastCityLength; i++) {
+				if (buffer.get(cityStart + i) != lastCityBytes[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void rememberLastCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+			lastCityLength = cityEnd - cityStart;
+			if (lastCityBytes.length < lastCityLength) {
+				lastCityBytes = Arrays.copyOf(lastCityBytes, lastCityLength);
+			}
+			buffer.get(cityStart, lastCityBytes, 0, lastCityLength);
+
+			final String city = new String(lastCityBytes, 0, lastCityLength, StandardCharsets.UTF_8);
+			lastCityId = cityIds.computeIfAbsent(city, name -> {
+				cityNames.add(Arrays.copyOf(lastCityBytes, lastCityLength));
+				return cityNames.size() - 1;
+			});
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.demo.utils.filereader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import com.example.demo.utils.Constants;
+import com.example.demo.utils.parser.ChunkParser;
+import com.example.demo.utils.parser.ColumnarBlockParser;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Memory-maps a file in the columnar binary format written by {@link ColumnarFileConverter}. Chunks are runs
+ * of whole blocks, so parsing them is a sequential scan of fixed-width columns. Blocks are only ever
+ * appended, so a refresh resumes after the last complete block.
+ */
+@Component
+@Conditional(FileReaderSelection.Columnar.class)
+@RequiredArgsConstructor
+public final class ColumnarFileReader implements FileReaderStrategy {
+
+	private final ResourceLoader resourceLoader;
+
+	@Value("${temperature.csv.file}")
+	private String filePath;
+
+	@Value("${temperature.csv.chunk-size:0}")
+	private long chunkSize;
+
+	@Override
+	public void readFile(Consumer<String> lineConsumer) throws IOException {
+		readChunks(chunk -> ColumnarBlockParser.parseChunk(chunk, (buffer, cityStart, cityEnd, year, month, day, temperature) -> {
+			final byte[] city = new byte[cityEnd - cityStart];
+			buffer.get(cityStart, city);
+			lineConsumer.accept(new String(city, StandardCharsets.UTF_8) + Constants.DELIMITER
+					+ LocalDate.of(year, month, day) + " 00:00:00.000" + Constants.DELIMITER + temperature / 100.0);
+		}));
+	}
+
+	@Override
+	public ReadCheckpoint readChunks(Consumer<ByteBuffer> chunkConsumer) throws IOException {
+		try (FileChannel channel = openChannel()) {
+			final long size = channel.size();
+			if (size == 0) {
+				return null;
+			}
+			if (size < ColumnarBlockParser.HEADER_SIZE
+					|| intAt(channel, 0) != ColumnarBlockParser.MAGIC
+					|| intAt(channel, Integer.BYTES) != ColumnarBlockParser.FORMAT_VERSION) {
+				throw new IOException("Not a columnar temperature file of version " + ColumnarBlockParser.FORMAT_VERSION);
+			}
+			final long end = mapBlocks(channel, ColumnarBlockParser.HEADER_SIZE, size, chunkConsumer);
+			return checkpoint(channel, end);
+		}
+	}
+
+	@Override
+	public ReadCheckpoint readAppendedChunks(ReadCheckpoint checkpoint, Consumer<ByteBuffer> chunkConsumer)
+			throws IOException {
+		try (FileChannel channel = openChannel()) {
+			final long size = channel.size();
+			if (size < checkpoint.offset()
+					|| MappedCSVFileReader.headChecksum(channel, checkpoint.headLength()) != checkpoint.headChecksum()) {
+				return null;
+			}
+			final long end = mapBlocks(channel, checkpoint.offset(), size, chunkConsumer);
+			return checkpoint(channel, end);
+		}
+	}
+
+	@Override
+	public ChunkParser chunkParser() {
+		return ColumnarBlockParser::parseChunk;
+	}
+
+	private FileChannel openChannel() throws IOException {
+		final Path path = resourceLoader.getResource(filePath).getFile().toPath();
+		return FileChannel.open(path, StandardOpenOption.READ);
+	}
+
+	// Returns the end of the last complete block; a block that is still being written is left for the next read
+	private long mapBlocks(FileChannel channel, long from, long size, Consumer<ByteBuffer> chunkConsumer)
+			throws IOException {
+		final long targetChunkSize = chunkSize > 0 ? chunkSize : MappedCSVFileReader.chunkSizeFor(size - from);
+
+		long start = from;
+		long end = from;
+		while (end + Integer.BYTES <= size) {
+			final long blockEnd = end + Integer.BYTES + Integer.toUnsignedLong(intAt(channel, end));
+			if (blockEnd > size) {
+				break;
+			}
+			end = blockEnd;
+			if (end - start >= targetChunkSize) {
+				chunkConsumer.accept(channel.map(MapMode.READ_ONLY, start, end - start));
+				start = end;
+			}
+		}
+		if (end > start) {
+			chunkConsumer.accept(channel.map(MapMode.READ_ONLY, start, end - start));
+		}
+		return end;
+	}
+
+	private static ReadCheckpoint checkpoint(FileChannel channel, long end) throws IOException {
+		final int headLength = (int) Math.min(end, MappedCSVFileReader.HEAD_CHECKSUM_SIZE);
+		return new ReadCheckpoint(end, headLength, MappedCSVFileReader.headChecksum(channel, headLength), true);
+	}
+
+	private static int intAt(FileChannel channel, long position) throws IOException {
+		final ByteBuffer value = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		int read = 0;
+		while (value.hasRemaining() && read >= 0) {
+			read = channel.read(value, position + value.position());
+		}
+		return value.hasRemaining() ? 0 : value.getInt(0);
+	}
+
+	@Override
+	public Optional<Path> sourcePath() throws IOException {
+		final var resource = resourceLoader.getResource(filePath);
+		return resource.isFile() ? Optional.of(resource.getFile().toPath()) : Optional.empty();
+	}
+}
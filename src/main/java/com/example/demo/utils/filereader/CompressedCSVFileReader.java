@@ -0,0 +1,61 @@
+package com.example.demo.utils.filereader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads a gzip or zstd compressed file, decompressing it while it is read. Decompression runs on the
+ * calling thread and the chunks are parsed in parallel behind it. A compressed file cannot be resumed, so
+ * every refresh reads it completely.
+ */
+@Component
+@Conditional(FileReaderSelection.Compressed.class)
+@RequiredArgsConstructor
+public final class CompressedCSVFileReader implements FileReaderStrategy {
+
+	private final ResourceLoader resourceLoader;
+
+	@Value("${temperature.csv.file}")
+	private String filePath;
+
+	@Override
+	public void readFile(Consumer<String> lineConsumer) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineConsumer.accept(line);
+			}
+		}
+	}
+
+	@Override
+	public ReadCheckpoint readChunks(Consumer<ByteBuffer> chunkConsumer) throws IOException {
+		try (InputStream inputStream = open()) {
+			LineChunks.read(inputStream, chunkConsumer);
+		}
+
+		return null;
+	}
+
+	private InputStream open() throws IOException {
+		return Decompression.decompress(resourceLoader.getResource(filePath).getInputStream());
+	}
+
+	@Override
+	public Optional<Path> sourcePath() throws IOException {
+		final var resource = resourceLoader.getResource(filePath);
+		return resource.isFile() ? Optional.of(resource.getFile().toPath()) : Optional.empty();
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.demo.utils.filereader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import io.airlift.compress.zstd.ZstdInputStream;
+
+/**
+ * Recognizes gzip and zstd input by its magic bytes and decompresses it while it is read, so compressed
+ * exports never have to be unpacked to disk.
+ */
+final class Decompression {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final int GZIP_MAGIC = 0x1f8b;
+
+	private static final int ZSTD_MAGIC = 0x28b52ffd;
+
+	private Decompression() {
+	}
+
+	/**
+	 * Returns {@code true} when the name has a gzip or zstd extension.
+	 */
+	static boolean isCompressedName(String name) {
+		final String lowerCase = name.toLowerCase(Locale.ROOT);
+		return lowerCase.endsWith(".gz") || lowerCase.endsWith(".gzip")
+				|| lowerCase.endsWith(".zst") || lowerCase.endsWith(".zstd");
+	}
+
+	/**
+	 * Wraps the stream in a decompressor matching its first bytes. Input that is neither gzip nor zstd is
+	 * passed through unchanged.
+	 */
+	static InputStream decompress(InputStream inputStream) throws IOException {
+		final var buffered = new BufferedInputStream(inputStream, BUFFER_SIZE);
+		try {
+			buffered.mark(4);
+			final byte[] magic = buffered.readNBytes(4);
+			buffered.reset();
+
+			if (magic.length >= 2 && bigEndian(magic, 2) == GZIP_MAGIC) {
+				return new GZIPInputStream(buffered, BUFFER_SIZE);
+			}
+			if (magic.length == 4 && bigEndian(magic, 4) == ZSTD_MAGIC) {
+				return new ZstdInputStream(buffered);
+			}
+			return buffered;
+		} catch (IOException e) {
+			buffered.close();
+			throw e;
+		}
+	}
+
+	private static int bigEndian(byte[] bytes, int length) {
+		int value = 0;
+		for (int i = 0; i < length; i++) {
+			value = value << 8 | bytes[i] & 0xff;
+		}
+		return value;
+	}
+}
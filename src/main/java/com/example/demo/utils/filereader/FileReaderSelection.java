@@ -0,0 +1,117 @@
+package com.example.demo.utils.filereader;
+
+import java.io.IOException;
+import java.util.Locale;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Picks the reader from {@code temperature.csv.reader}. With {@code auto} (the default) it follows
+ * {@code temperature.csv.file}: a directory is read as part-files, a {@code .gz} or {@code .zst} file is
+ * decompressed while it is read, a {@code .tcol} file is read as columnar binary data, any other file on
+ * disk is memory-mapped and everything else is streamed.
+ */
+final class FileReaderSelection {
+
+	static final String AUTO = "auto";
+
+	static final String MAPPED = "mapped";
+
+	static final String BUFFERED = "buffered";
+
+	static final String COMPRESSED = "compressed";
+
+	static final String PARTS = "parts";
+
+	static final String COLUMNAR = "columnar";
+
+	static final String COLUMNAR_EXTENSION = ".tcol";
+
+	private FileReaderSelection() {
+	}
+
+	static String select(String reader, Resource resource) {
+		if (!AUTO.equals(reader)) {
+			if (!MAPPED.equals(reader) && !BUFFERED.equals(reader) && !COMPRESSED.equals(reader) && !PARTS.equals(reader)
+					&& !COLUMNAR.equals(reader)) {
+				throw new IllegalArgumentException("Unknown temperature.csv.reader: " + reader);
+			}
+			return reader;
+		}
+
+		final String name = resource.getFilename() == null ? "" : resource.getFilename();
+		if (Decompression.isCompressedName(name)) {
+			return COMPRESSED;
+		}
+		if (name.toLowerCase(Locale.ROOT).endsWith(COLUMNAR_EXTENSION)) {
+			return COLUMNAR;
+		}
+		if (isDirectory(resource)) {
+			return PARTS;
+		}
+		return resource.isFile() ? MAPPED : BUFFERED;
+	}
+
+	private static boolean isDirectory(Resource resource) {
+		try {
+			return resource.isFile() && resource.getFile().isDirectory();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	abstract static class Selected implements Condition {
+
+		private final String reader;
+
+		Selected(String reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			final var environment = context.getEnvironment();
+			final ResourceLoader resourceLoader = context.getResourceLoader();
+			final Resource resource = resourceLoader.getResource(environment.getProperty("temperature.csv.file", ""));
+			return reader.equals(select(environment.getProperty("temperature.csv.reader", AUTO), resource));
+		}
+	}
+
+	static final class Mapped extends Selected {
+
+		Mapped() {
+			super(MAPPED);
+		}
+	}
+
+	static final class Buffered extends Selected {
+
+		Buffered() {
+			super(BUFFERED);
+		}
+	}
+
+	static final class Compressed extends Selected {
+
+		Compressed() {
+			super(COMPRESSED);
+		}
+	}
+
+	static final class Parts extends Selected {
+
+		Parts() {
+			super(PARTS);
+		}
+	}
+
+	static final class Columnar extends Selected {
+
+		Columnar() {
+			super(COLUMNAR);
+		}
+	}
+}
@@ -1,8 +1,43 @@
 package com.example.demo.utils.filereader;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.function.Consumer;
+import com.example.demo.utils.parser.ChunkParser;
+import com.example.demo.utils.parser.TemperatureLineParser;
 
 public interface FileReaderStrategy {
 
 	void readFile(Consumer<String> lineConsumer) throws java.io.IOException;
+
+	/**
+	 * Hands the file over as chunks of raw bytes. Every chunk ends on a line boundary, so chunks can be
+	 * parsed independently of each other. Returns the checkpoint to resume from with
+	 * {@link #readAppendedChunks}, or {@code null} when the source cannot be resumed.
+	 */
+	ReadCheckpoint readChunks(Consumer<ByteBuffer> chunkConsumer) throws java.io.IOException;
+
+	/**
+	 * Reads only the data appended since {@code checkpoint}. Returns {@code null} without reading anything
+	 * when the file was rewritten or truncated in the meantime, in which case it has to be read again from
+	 * the start.
+	 */
+	default ReadCheckpoint readAppendedChunks(ReadCheckpoint checkpoint, Consumer<ByteBuffer> chunkConsumer)
+			throws java.io.IOException {
+		return null;
+	}
+
+	/**
+	 * Returns the parser for the chunks handed over by this reader. Chunks are CSV lines unless a reader
+	 * reads another format.
+	 */
+	default ChunkParser chunkParser() {
+		return TemperatureLineParser::parseChunk;
+	}
+
+	/**
+	 * Returns the file on disk backing this reader, if there is one, so that it can be watched for changes.
+	 */
+	Optional<Path> sourcePath() throws java.io.IOException;
 }
@@ -0,0 +1,50 @@
+package com.example.demo.utils.filereader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Cuts a stream into chunks that end on a line boundary, for readers that cannot map their source.
+ */
+final class LineChunks {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	private LineChunks() {
+	}
+
+	static void read(InputStream inputStream, Consumer<ByteBuffer> chunkConsumer) throws IOException {
+		byte[] buffer = new byte[CHUNK_SIZE];
+		int filled = 0;
+		int read;
+		while ((read = inputStream.read(buffer, filled, buffer.length - filled)) != -1) {
+			filled += read;
+			if (filled < buffer.length) {
+				continue;
+			}
+			final int lineEnd = lastLineEnd(buffer, filled);
+			if (lineEnd == 0) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2); // a single line longer than the buffer
+				continue;
+			}
+			chunkConsumer.accept(ByteBuffer.wrap(Arrays.copyOf(buffer, lineEnd)));
+			filled -= lineEnd;
+			System.arraycopy(buffer, lineEnd, buffer, 0, filled);
+		}
+		if (filled > 0) {
+			chunkConsumer.accept(ByteBuffer.wrap(Arrays.copyOf(buffer, filled)));
+		}
+	}
+
+	private static int lastLineEnd(byte[] buffer, int length) {
+		for (int i = length - 1; i >= 0; i--) {
+			if (buffer[i] == '\n') {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+}
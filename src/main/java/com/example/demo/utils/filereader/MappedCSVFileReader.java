@@ -0,0 +1,193 @@
+package com.example.demo.utils.filereader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@Conditional(FileReaderSelection.Mapped.class)
+@RequiredArgsConstructor
+public final class MappedCSVFileReader implements FileReaderStrategy {
+
+	private static final long MIN_CHUNK_SIZE = 1L << 20;
+
+	private static final long MAX_CHUNK_SIZE = 64L << 20;
+
+	private static final int CHUNKS_PER_CORE = 4;
+
+	private static final int BOUNDARY_SCAN_SIZE = 256;
+
+	static final int HEAD_CHECKSUM_SIZE = 4096;
+
+	private final ResourceLoader resourceLoader;
+
+	@Value("${temperature.csv.file}")
+	private String filePath;
+
+	@Value("${temperature.csv.chunk-size:0}")
+	private long chunkSize;
+
+	@Override
+	public void readFile(Consumer<String> lineConsumer) throws IOException {
+		readChunks(chunk -> {
+			int lineStart = chunk.position();
+			for (int i = lineStart; i < chunk.limit(); i++) {
+				if (chunk.get(i) == '\n') {
+					lineConsumer.accept(decode(chunk, lineStart, i));
+					lineStart = i + 1;
+				}
+			}
+			if (lineStart < chunk.limit()) {
+				lineConsumer.accept(decode(chunk, lineStart, chunk.limit()));
+			}
+		});
+	}
+
+	@Override
+	public ReadCheckpoint readChunks(Consumer<ByteBuffer> chunkConsumer) throws IOException {
+		try (FileChannel channel = openChannel()) {
+			// Like appended data, a last line without its newline may still be being written, so it is left for
+			// the next refresh
+			final long end = lastLineEnd(channel, 0, channel.size());
+			mapChunks(channel, 0, end, chunkConsumer);
+			return checkpoint(channel, end);
+		}
+	}
+
+	@Override
+	public ReadCheckpoint readAppendedChunks(ReadCheckpoint checkpoint, Consumer<ByteBuffer> chunkConsumer)
+			throws IOException {
+		try (FileChannel channel = openChannel()) {
+			final long size = channel.size();
+			if (!isAppendedTo(channel, checkpoint, size)) {
+				return null;
+			}
+			final long end = lastLineEnd(channel, checkpoint.offset(), size);
+			mapChunks(channel, checkpoint.offset(), end, chunkConsumer);
+			return checkpoint(channel, end);
+		}
+	}
+
+	private FileChannel openChannel() throws IOException {
+		final Path path = resourceLoader.getResource(filePath).getFile().toPath();
+		return FileChannel.open(path, StandardOpenOption.READ);
+	}
+
+	private void mapChunks(FileChannel channel, long from, long size, Consumer<ByteBuffer> chunkConsumer)
+			throws IOException {
+		final long targetChunkSize = chunkSize > 0 ? chunkSize : chunkSizeFor(size - from);
+
+		long start = from;
+		while (start < size) {
+			final long end = start + targetChunkSize >= size
+					? size
+					: nextLineStart(channel, start + targetChunkSize, size);
+			final MappedByteBuffer chunk = channel.map(MapMode.READ_ONLY, start, end - start);
+			chunkConsumer.accept(chunk);
+			start = end;
+		}
+	}
+
+	// The file only counts as appended to if its head is unchanged and the new data does not continue a line
+	// that was already read without its terminating newline.
+	private static boolean isAppendedTo(FileChannel channel, ReadCheckpoint checkpoint, long size)
+			throws IOException {
+		if (size < checkpoint.offset() || headChecksum(channel, checkpoint.headLength()) != checkpoint.headChecksum()) {
+			return false;
+		}
+		return checkpoint.endsWithNewline() || size == checkpoint.offset() || byteAt(channel, checkpoint.offset()) == '\n';
+	}
+
+	private static ReadCheckpoint checkpoint(FileChannel channel, long size) throws IOException {
+		final int headLength = (int) Math.min(size, HEAD_CHECKSUM_SIZE);
+		final boolean endsWithNewline = size == 0 || byteAt(channel, size - 1) == '\n';
+		return new ReadCheckpoint(size, headLength, headChecksum(channel, headLength), endsWithNewline);
+	}
+
+	static long headChecksum(FileChannel channel, int length) throws IOException {
+		final ByteBuffer head = ByteBuffer.allocate(length);
+		int read = 0;
+		while (head.hasRemaining() && read >= 0) {
+			read = channel.read(head, head.position());
+		}
+		final CRC32 checksum = new CRC32();
+		checksum.update(head.flip());
+		return checksum.getValue();
+	}
+
+	private static byte byteAt(FileChannel channel, long position) throws IOException {
+		final ByteBuffer single = ByteBuffer.allocate(1);
+		return channel.read(single, position) == 1 ? single.get(0) : 0;
+	}
+
+	static long chunkSizeFor(long fileSize) {
+		final long perCore = fileSize / ((long) Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE);
+		return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, perCore));
+	}
+
+	private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+		final ByteBuffer window = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long offset = position;
+		while (offset < size) {
+			window.clear();
+			final int read = channel.read(window, offset);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (window.get(i) == '\n') {
+					return offset + i + 1;
+				}
+			}
+			offset += read;
+		}
+		return size;
+	}
+
+	// Position after the last newline between from and size, or from if there is none
+	private static long lastLineEnd(FileChannel channel, long from, long size) throws IOException {
+		final ByteBuffer window = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long end = size;
+		while (end > from) {
+			final long start = Math.max(from, end - BOUNDARY_SCAN_SIZE);
+			window.clear().limit((int) (end - start));
+			int read = 0;
+			while (window.hasRemaining() && read >= 0) {
+				read = channel.read(window, start + window.position());
+			}
+			for (int i = window.position() - 1; i >= 0; i--) {
+				if (window.get(i) == '\n') {
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return from;
+	}
+
+	private static String decode(ByteBuffer chunk, int from, int to) {
+		final int end = to > from && chunk.get(to - 1) == '\r' ? to - 1 : to;
+		final byte[] bytes = new byte[end - from];
+		chunk.get(from, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public Optional<Path> sourcePath() throws IOException {
+		final var resource = resourceLoader.getResource(filePath);
+		return resource.isFile() ? Optional.of(resource.getFile().toPath()) : Optional.empty();
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.demo.utils.filereader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads a directory of part-files, plain or gzip/zstd compressed. The parts are read and decompressed
+ * concurrently, while their chunks are still handed to the consumer one at a time on the calling thread.
+ * Hidden files and files starting with {@code _} (such as {@code _SUCCESS} markers) are skipped. Every
+ * refresh reads all parts.
+ */
+@Component
+@Conditional(FileReaderSelection.Parts.class)
+@RequiredArgsConstructor
+public final class PartFilesCSVFileReader implements FileReaderStrategy {
+
+	// Marks the end of one part in the queue
+	private static final ByteBuffer END_OF_PART = ByteBuffer.allocate(0);
+
+	private final ResourceLoader resourceLoader;
+
+	@Value("${temperature.csv.file}")
+	private String filePath;
+
+	@Value("${temperature.csv.part-readers:0}")
+	private int partReaders;
+
+	@Override
+	public void readFile(Consumer<String> lineConsumer) throws IOException {
+		for (Path part : parts()) {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(part), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lineConsumer.accept(line);
+				}
+			}
+		}
+	}
+
+	@Override
+	public ReadCheckpoint readChunks(Consumer<ByteBuffer> chunkConsumer) throws IOException {
+		final List<Path> parts = parts();
+		if (parts.isEmpty()) {
+			return null;
+		}
+
+		final int threads = partReaders > 0 ? partReaders : Math.min(parts.size(), Runtime.getRuntime().availableProcessors());
+		final BlockingQueue<ByteBuffer> chunks = new ArrayBlockingQueue<>(threads * 2);
+		final ExecutorService readers = Executors.newFixedThreadPool(threads, partReaderThreads());
+		try {
+			final List<Future<?>> reads = new ArrayList<>();
+			for (Path part : parts) {
+				reads.add(readers.submit(() -> readPart(part, chunks)));
+			}
+
+			int finishedParts = 0;
+			while (finishedParts < parts.size()) {
+				final ByteBuffer chunk = chunks.take();
+				if (chunk == END_OF_PART) {
+					finishedParts++;
+				} else {
+					chunkConsumer.accept(chunk);
+				}
+			}
+
+			for (Future<?> read : reads) {
+				read.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading part-files", e);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+		} finally {
+			readers.shutdownNow();
+		}
+
+		return null;
+	}
+
+	private Void readPart(Path part, BlockingQueue<ByteBuffer> chunks) throws IOException, InterruptedException {
+		try (InputStream inputStream = open(part)) {
+			LineChunks.read(inputStream, chunk -> put(chunks, chunk));
+		} finally {
+			chunks.put(END_OF_PART);
+		}
+		return null;
+	}
+
+	private static void put(BlockingQueue<ByteBuffer> chunks, ByteBuffer chunk) {
+		try {
+			chunks.put(chunk);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while reading part-files", e);
+		}
+	}
+
+	List<Path> parts() throws IOException {
+		final Path directory = resourceLoader.getResource(filePath).getFile().toPath();
+		try (Stream<Path> files = Files.list(directory)) {
+			return files
+					.filter(Files::isRegularFile)
+					.filter(file -> !file.getFileName().toString().startsWith(".") && !file.getFileName().toString().startsWith("_"))
+					.sorted()
+					.toList();
+		}
+	}
+
+	private static InputStream open(Path part) throws IOException {
+		return Decompression.decompress(Files.newInputStream(part));
+	}
+
+	private static ThreadFactory partReaderThreads() {
+		final AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			final Thread thread = new Thread(runnable, "temperature-part-reader-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	@Override
+	public Optional<Path> sourcePath() throws IOException {
+		final var resource = resourceLoader.getResource(filePath);
+		return resource.isFile() ? Optional.of(resource.getFile().toPath()) : Optional.empty();
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.demo.utils.filereader;
+
+/**
+ * Position up to which a file has been read, together with a checksum of its first bytes so that a
+ * rewritten or rotated file is not mistaken for an appended one.
+ */
+public record ReadCheckpoint(long offset,
+							 int headLength,
+							 long headChecksum,
+							 boolean endsWithNewline) {
+}
@@ -0,0 +1,12 @@
+package com.example.demo.utils.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses the readings of one chunk handed over by a {@code FileReaderStrategy}.
+ */
+@FunctionalInterface
+public interface ChunkParser {
+
+	ParsedChunk parse(ByteBuffer chunk, TemperatureRecordHandler handler);
+}
@@ -0,0 +1,128 @@
+package com.example.demo.utils.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Parses the blocks of the columnar binary temperature format. A file starts with {@link #MAGIC} and
+ * {@link #FORMAT_VERSION}, followed by independent blocks, all little-endian:
+ *
+ * <pre>
+ * int    length of the rest of the block in bytes
+ * int    city count, then per city an unsigned short name length and the UTF-8 name
+ * int    row count (at most {@link #MAX_BLOCK_ROWS})
+ * char[] city of each row, as an index into the block's cities
+ * int[]  day of each row, in days since 1970-01-01
+ * short[] temperature of each row, in hundredths of a degree
+ * </pre>
+ *
+ * Each block carries its own cities, so blocks can be parsed in parallel like lines of the CSV file.
+ */
+public final class ColumnarBlockParser {
+
+	public static final int MAGIC = 0x4c4f4354; // "TCOL" in little-endian
+
+	public static final int FORMAT_VERSION = 1;
+
+	public static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+	public static final int MAX_BLOCK_ROWS = 1 << 16;
+
+	// Bytes per row: city index, day and temperature
+	public static final int ROW_SIZE = Character.BYTES + Integer.BYTES + Short.BYTES;
+
+	private ColumnarBlockParser() {
+	}
+
+	/**
+	 * Parses every block of the chunk. The chunk has to start at a block and end at the end of a block.
+	 */
+	public static ParsedChunk parseChunk(ByteBuffer chunk, TemperatureRecordHandler handler) {
+		final ByteBuffer buffer = chunk.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		final int limit = buffer.limit();
+		int[] nameStarts = new int[0];
+		int[] nameEnds = new int[0];
+		boolean[] accepted = new boolean[0];
+		long rows = 0;
+
+		int blockStart = buffer.position();
+		while (blockStart < limit) {
+			final int blockEnd = blockStart + Integer.BYTES + buffer.getInt(blockStart);
+			if (blockEnd > limit || blockEnd < blockStart) {
+				throw new IllegalArgumentException("Truncated columnar block at offset " + blockStart);
+			}
+
+			int position = blockStart + Integer.BYTES;
+			final int cityCount = buffer.getInt(position);
+			position += Integer.BYTES;
+			if (nameStarts.length < cityCount) {
+				nameStarts = new int[cityCount];
+				nameEnds = new int[cityCount];
+				accepted = new boolean[cityCount];
+			}
+			for (int city = 0; city < cityCount; city++) {
+				final int nameLength = buffer.getChar(position);
+				nameStarts[city] = position + Character.BYTES;
+				nameEnds[city] = nameStarts[city] + nameLength;
+				position = nameEnds[city];
+				accepted[city] = handler.acceptsCity(buffer, nameStarts[city], nameEnds[city]);
+			}
+
+			final int rowCount = buffer.getInt(position);
+			final int cities = position + Integer.BYTES;
+			final int days = cities + rowCount * Character.BYTES;
+			final int temperatures = days + rowCount * Integer.BYTES;
+			if (rowCount < 0 || rowCount > MAX_BLOCK_ROWS || temperatures + rowCount * Short.BYTES != blockEnd) {
+				throw new IllegalArgumentException("Malformed columnar block at offset " + blockStart);
+			}
+
+			int lastEpochDay = Integer.MIN_VALUE;
+			int yearMonthDay = 0;
+			for (int row = 0; row < rowCount; row++) {
+				final int city = buffer.getChar(cities + row * Character.BYTES);
+				if (!accepted[city]) {
+					continue;
+				}
+				final int epochDay = buffer.getInt(days + row * Integer.BYTES);
+				if (epochDay != lastEpochDay) {
+					yearMonthDay = yearMonthDay(epochDay);
+					lastEpochDay = epochDay;
+				}
+				handler.accept(buffer, nameStarts[city], nameEnds[city], yearMonthDay >> 9, yearMonthDay >> 5 & 0xf,
+						yearMonthDay & 0x1f, buffer.getShort(temperatures + row * Short.BYTES));
+			}
+
+			rows += rowCount;
+			blockStart = blockEnd;
+		}
+
+		return new ParsedChunk(rows, 0);
+	}
+
+	/**
+	 * Year, month and day of an epoch day packed as {@code year << 9 | month << 5 | day}, computed like
+	 * {@link java.time.LocalDate#ofEpochDay(long)} without creating a date.
+	 */
+	static int yearMonthDay(long epochDay) {
+		long zeroDay = epochDay + 719468; // days since 0000-03-01
+		long adjust = 0;
+		if (zeroDay < 0) {
+			final long adjustCycles = (zeroDay + 1) / 146097 - 1;
+			adjust = adjustCycles * 400;
+			zeroDay += -adjustCycles * 146097;
+		}
+		long yearEstimate = (400 * zeroDay + 591) / 146097;
+		long dayOfYear = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+		if (dayOfYear < 0) {
+			yearEstimate--;
+			dayOfYear = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+		}
+		yearEstimate += adjust;
+		final int marchDayOfYear = (int) dayOfYear;
+		final int marchMonth = (marchDayOfYear * 5 + 2) / 153;
+		final int month = (marchMonth + 2) % 12 + 1;
+		final int day = marchDayOfYear - (marchMonth * 306 + 5) / 10 + 1;
+		final int year = (int) (yearEstimate + marchMonth / 10);
+		return year << 9 | month << 5 | day;
+	}
+}
@@ -0,0 +1,5 @@
+package com.example.demo.utils.parser;
+
+public record ParsedChunk(long rows,
+						  long rejectedRows) {
+}
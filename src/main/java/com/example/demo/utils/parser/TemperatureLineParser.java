@@ -0,0 +1,178 @@
+package com.example.demo.utils.parser;
+
+import java.nio.ByteBuffer;
+import com.example.demo.utils.Constants;
+
+/**
+ * Parses {@code city;yyyy-MM-dd HH:mm:ss.SSS;temp} lines straight from bytes, without creating any
+ * objects per line. Temperatures are read as fixed-point hundredths of a degree.
+ */
+public final class TemperatureLineParser {
+
+	private static final byte DELIMITER = (byte) Constants.DELIMITER.charAt(0);
+
+	private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss.SSS".length();
+
+	private static final int MAX_INTEGER_DIGITS = 6;
+
+	private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+	private TemperatureLineParser() {
+	}
+
+	/**
+	 * Parses every line of the chunk and returns how many lines were parsed and how many non-empty lines were
+	 * rejected as malformed. Lines of a city the handler does not accept count as parsed without the rest of
+	 * the line being checked.
+	 */
+	public static ParsedChunk parseChunk(ByteBuffer chunk, TemperatureRecordHandler handler) {
+		long rows = 0;
+		long rejected = 0;
+		int lineStart = chunk.position();
+		final int limit = chunk.limit();
+
+		for (int i = lineStart; i <= limit; i++) {
+			if (i == limit || chunk.get(i) == '\n') {
+				if (i > lineStart) {
+					if (parseLine(chunk, lineStart, i, handler)) {
+						rows++;
+					} else {
+						rejected++;
+					}
+				}
+				lineStart = i + 1;
+			}
+		}
+
+		return new ParsedChunk(rows, rejected);
+	}
+
+	public static boolean parseLine(ByteBuffer buffer, int from, int to, TemperatureRecordHandler handler) {
+		final int end = to > from && buffer.get(to - 1) == '\r' ? to - 1 : to;
+
+		final int cityEnd = indexOf(buffer, from, end, DELIMITER);
+		if (cityEnd <= from) {
+			return false;
+		}
+		if (!handler.acceptsCity(buffer, from, cityEnd)) {
+			return true;
+		}
+
+		final int timestampStart = cityEnd + 1;
+		final int timestampEnd = timestampStart + TIMESTAMP_LENGTH;
+		if (timestampEnd >= end || buffer.get(timestampEnd) != DELIMITER) {
+			return false;
+		}
+		if (!hasTimestampLayout(buffer, timestampStart)) {
+			return false;
+		}
+
+		final int year = digits(buffer, timestampStart, 4);
+		final int month = digits(buffer, timestampStart + 5, 2);
+		final int day = digits(buffer, timestampStart + 8, 2);
+		final int hour = digits(buffer, timestampStart + 11, 2);
+		final int minute = digits(buffer, timestampStart + 14, 2);
+		final int second = digits(buffer, timestampStart + 17, 2);
+		if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+			return false;
+		}
+
+		final int temperature = parseHundredths(buffer, timestampEnd + 1, end);
+		if (temperature == Integer.MIN_VALUE) {
+			return false;
+		}
+
+		handler.accept(buffer, from, cityEnd, year, month, Math.min(day, daysInMonth(year, month)), temperature);
+		return true;
+	}
+
+	public static int daysInMonth(int year, int month) {
+		if (month == 2 && (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+			return 29;
+		}
+		return DAYS_IN_MONTH[month - 1];
+	}
+
+	/**
+	 * Returns the value in hundredths, rounded half away from zero, or {@link Integer#MIN_VALUE} when the
+	 * range does not hold a decimal number.
+	 */
+	static int parseHundredths(ByteBuffer buffer, int from, int to) {
+		int position = from;
+		boolean negative = false;
+		if (position < to && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+			negative = buffer.get(position) == '-';
+			position++;
+		}
+
+		int value = 0;
+		int integerDigits = 0;
+		while (position < to && isDigit(buffer.get(position))) {
+			if (++integerDigits > MAX_INTEGER_DIGITS) {
+				return Integer.MIN_VALUE;
+			}
+			value = value * 10 + (buffer.get(position++) - '0');
+		}
+
+		int fractionDigits = 0;
+		if (position < to && buffer.get(position) == '.') {
+			position++;
+			while (position < to && isDigit(buffer.get(position))) {
+				final int digit = buffer.get(position++) - '0';
+				if (fractionDigits < 2) {
+					value = value * 10 + digit;
+				} else if (fractionDigits == 2 && digit >= 5) {
+					value++;
+				}
+				fractionDigits++;
+			}
+		}
+
+		if (position != to || integerDigits + fractionDigits == 0) {
+			return Integer.MIN_VALUE;
+		}
+		for (int i = fractionDigits; i < 2; i++) {
+			value *= 10;
+		}
+
+		return negative ? -value : value;
+	}
+
+	private static boolean hasTimestampLayout(ByteBuffer buffer, int start) {
+		for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+			final byte b = buffer.get(start + i);
+			final boolean valid = switch (i) {
+				case 4, 7 -> b == '-';
+				case 10 -> b == ' ';
+				case 13, 16 -> b == ':';
+				case 19 -> b == '.';
+				default -> isDigit(b);
+			};
+			if (!valid) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int digits(ByteBuffer buffer, int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			value = value * 10 + (buffer.get(i) - '0');
+		}
+		return value;
+	}
+
+	private static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+}
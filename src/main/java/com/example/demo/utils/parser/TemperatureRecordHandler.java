@@ -0,0 +1,22 @@
+package com.example.demo.utils.parser;
+
+import java.nio.ByteBuffer;
+
+@FunctionalInterface
+public interface TemperatureRecordHandler {
+
+	/**
+	 * Receives one parsed reading. The city name is not decoded: it is the UTF-8 byte range
+	 * {@code [cityStart, cityEnd)} of {@code buffer}, which is only valid for the duration of the call.
+	 */
+	void accept(ByteBuffer buffer, int cityStart, int cityEnd, int year, int month, int day,
+			int temperatureHundredths);
+
+	/**
+	 * Lets the handler skip the readings of a city before the rest of the record is parsed. The city is the
+	 * same byte range as in {@link #accept}.
+	 */
+	default boolean acceptsCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+		return true;
+	}
+}
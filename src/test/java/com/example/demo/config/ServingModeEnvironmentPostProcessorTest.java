@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+class ServingModeEnvironmentPostProcessorTest {
+
+	private final ServingModeEnvironmentPostProcessor postProcessor = new ServingModeEnvironmentPostProcessor();
+
+	private final MockEnvironment environment = new MockEnvironment();
+
+	@Test
+	void testPostProcessEnvironment_withPlatform_shouldDisableVirtualThreads() {
+		// Given
+		environment.setProperty(ServingModeEnvironmentPostProcessor.MODE_PROPERTY, ServingModeEnvironmentPostProcessor.PLATFORM);
+		environment.setProperty(ServingModeEnvironmentPostProcessor.VIRTUAL_THREADS_PROPERTY, "true");
+
+		// When
+		postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+		// Then
+		assertThat(environment.getProperty(ServingModeEnvironmentPostProcessor.VIRTUAL_THREADS_PROPERTY, Boolean.class))
+				.isFalse();
+	}
+
+	@Test
+	void testPostProcessEnvironment_withVirtual_shouldEnableVirtualThreadsOrFailBeforeJava21() {
+		// Given
+		environment.setProperty(ServingModeEnvironmentPostProcessor.MODE_PROPERTY, ServingModeEnvironmentPostProcessor.VIRTUAL);
+
+		// When & Then
+		if (Runtime.version().feature() >= 21) {
+			postProcessor.postProcessEnvironment(environment, new SpringApplication());
+			assertThat(environment.getProperty(ServingModeEnvironmentPostProcessor.VIRTUAL_THREADS_PROPERTY, Boolean.class))
+					.isTrue();
+		} else {
+			assertThatThrownBy(() -> postProcessor.postProcessEnvironment(environment, new SpringApplication()))
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("requires Java 21");
+		}
+	}
+
+	@Test
+	void testPostProcessEnvironment_withUnknownMode_shouldThrowException() {
+		// Given
+		environment.setProperty(ServingModeEnvironmentPostProcessor.MODE_PROPERTY, "reactive");
+
+		// When & Then
+		assertThatThrownBy(() -> postProcessor.postProcessEnvironment(environment, new SpringApplication()))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
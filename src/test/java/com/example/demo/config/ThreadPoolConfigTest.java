@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ThreadPoolConfigTest {
+
+	private final ThreadPoolConfig threadPoolConfig = new ThreadPoolConfig();
+
+	@Test
+	void testTemperatureExecutorService_withForkJoin_shouldUseConfiguredParallelism() {
+		// Given
+		ReflectionTestUtils.setField(threadPoolConfig, "executor", ThreadPoolConfig.FORK_JOIN);
+		ReflectionTestUtils.setField(threadPoolConfig, "parallelism", 3);
+
+		// When
+		final var executorService = threadPoolConfig.temperatureExecutorService();
+
+		// Then
+		assertThat(executorService).isInstanceOf(ForkJoinPool.class);
+		assertThat(((ForkJoinPool) executorService).getParallelism()).isEqualTo(3);
+		executorService.shutdownNow();
+	}
+
+	@Test
+	void testTemperatureExecutorService_withVirtual_shouldRunTasks() throws Exception {
+		// Given
+		ReflectionTestUtils.setField(threadPoolConfig, "executor", ThreadPoolConfig.VIRTUAL);
+
+		// When
+		final var executorService = threadPoolConfig.temperatureExecutorService();
+
+		// Then
+		assertThat(executorService.submit(() -> 42).get()).isEqualTo(42);
+		executorService.shutdownNow();
+	}
+
+	@Test
+	void testTemperatureExecutorService_withUnknownExecutor_shouldThrowException() {
+		// Given
+		ReflectionTestUtils.setField(threadPoolConfig, "executor", "unknown");
+
+		// When & Then
+		assertThatThrownBy(threadPoolConfig::temperatureExecutorService)
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void testParallelism_withoutConfiguration_shouldUseAvailableProcessors() {
+		// When & Then
+		assertThat(threadPoolConfig.parallelism()).isEqualTo(Runtime.getRuntime().availableProcessors());
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CityDictionaryTest {
+
+	@Test
+	void testIdOf_shouldAssignDenseIdsFromBytesAndStrings() {
+		// Given
+		final var dictionary = new CityDictionary();
+		final ByteBuffer buffer = ByteBuffer.wrap("Warszawa;Kraków;Warszawa".getBytes(StandardCharsets.UTF_8));
+
+		// When
+		final int warszawa = dictionary.idOf(buffer, 0, 8);
+		final int krakow = dictionary.idOf(buffer, 9, 16);
+		final int warszawaAgain = dictionary.idOf(buffer, 17, buffer.limit());
+
+		// Then
+		assertThat(warszawa).isZero();
+		assertThat(krakow).isEqualTo(1);
+		assertThat(warszawaAgain).isEqualTo(warszawa);
+		assertThat(dictionary.idOf("Kraków")).isEqualTo(krakow);
+		assertThat(dictionary.name(krakow)).isEqualTo("Kraków");
+		assertThat(dictionary.names()).containsExactly("Warszawa", "Kraków");
+	}
+
+	@Test
+	void testFind_shouldNotAddUnknownCity() {
+		// Given
+		final var dictionary = new CityDictionary();
+		dictionary.idOf("Warszawa");
+
+		// When
+		final int unknown = dictionary.find("Gdańsk");
+
+		// Then
+		assertThat(unknown).isEqualTo(CityDictionary.NOT_FOUND);
+		assertThat(dictionary.size()).isEqualTo(1);
+	}
+
+	@Test
+	void testIdOf_shouldKeepIdsWhenGrowing() {
+		// Given
+		final var dictionary = new CityDictionary();
+
+		// When
+		for (int i = 0; i < 10_000; i++) {
+			dictionary.idOf("City" + i);
+		}
+
+		// Then
+		assertThat(dictionary.size()).isEqualTo(10_000);
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(dictionary.find("City" + i)).isEqualTo(i);
+			assertThat(dictionary.name(i)).isEqualTo("City" + i);
+		}
+	}
+
+	@Test
+	void testExtend_shouldAddNamesWithoutChangingTheBase() {
+		// Given
+		final var base = new CityDictionary();
+		base.idOf("Warszawa");
+		base.idOf("Kraków");
+
+		// When
+		final CityDictionary discarded = base.extend();
+		discarded.idOf("Gdańsk");
+		final CityDictionary extended = base.extend();
+		final int poznan = extended.idOf("Poznań");
+
+		// Then
+		assertThat(base.size()).isEqualTo(2);
+		assertThat(base.find("Poznań")).isEqualTo(CityDictionary.NOT_FOUND);
+		assertThat(base.find("Gdańsk")).isEqualTo(CityDictionary.NOT_FOUND);
+		assertThat(base.names()).containsExactly("Warszawa", "Kraków");
+		assertThat(poznan).isEqualTo(2);
+		assertThat(extended.find("Gdańsk")).isEqualTo(CityDictionary.NOT_FOUND);
+		assertThat(extended.find("Kraków")).isEqualTo(1);
+		assertThat(extended.names()).containsExactly("Warszawa", "Kraków", "Poznań");
+	}
+}
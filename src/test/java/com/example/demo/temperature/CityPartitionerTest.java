@@ -0,0 +1,95 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.demo.utils.parser.TemperatureLineParser;
+
+class CityPartitionerTest {
+
+	private static final List<String> THREE_INSTANCES = List.of("http://a:8080", "http://b:8080/", "http://c:8080");
+
+	private static final List<String> CITIES = IntStream.range(0, 10_000).mapToObj(i -> "City" + i).toList();
+
+	@Test
+	void testOwns_shouldOwnEveryCityWhenNotPartitioned() {
+		// Given
+		final CityPartitioner partitioner = partitioner(List.of(), 0);
+		final TemperatureAggregates aggregates = new TemperatureAggregates();
+
+		// When
+		final var handler = partitioner.ownedCities(aggregates);
+
+		// Then
+		assertThat(partitioner.isPartitioned()).isFalse();
+		assertThat(CITIES).allMatch(partitioner::owns);
+		assertThat(partitioner.peers()).isEmpty();
+		assertThat(handler).isSameAs(aggregates);
+	}
+
+	@Test
+	void testOwns_shouldAssignEveryCityToExactlyOneInstance() {
+		// Given
+		final List<CityPartitioner> partitioners = IntStream.range(0, 3).mapToObj(i -> partitioner(THREE_INSTANCES, i)).toList();
+
+		// When
+		final List<Long> owned = partitioners.stream().map(partitioner -> CITIES.stream().filter(partitioner::owns).count()).toList();
+
+		// Then
+		assertThat(CITIES).allMatch(city -> partitioners.stream().filter(partitioner -> partitioner.owns(city)).count() == 1);
+		assertThat(CITIES).allMatch(city -> partitioners.get(0).ownerOf(city).equals(partitioners.get(2).ownerOf(city)));
+		assertThat(owned).allMatch(count -> count > CITIES.size() / 5 && count < CITIES.size() / 2);
+		assertThat(partitioners.get(1).peers()).containsExactly("http://a:8080", "http://c:8080");
+	}
+
+	@Test
+	void testOwnerOf_shouldOnlyMoveCitiesToAnAddedInstance() {
+		// Given
+		final CityPartitioner three = partitioner(THREE_INSTANCES, 0);
+		final CityPartitioner four = partitioner(List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://d:8080"), 0);
+
+		// When
+		final List<String> moved = CITIES.stream().filter(city -> !three.ownerOf(city).equals(four.ownerOf(city))).toList();
+
+		// Then
+		assertThat(moved).allMatch(city -> four.ownerOf(city).equals("http://d:8080"));
+		assertThat(moved.size()).isBetween(CITIES.size() / 8, CITIES.size() / 3);
+	}
+
+	@Test
+	void testOwnedCities_shouldSkipCitiesOfOtherInstancesWhileParsing() {
+		// Given
+		final CityPartitioner partitioner = partitioner(THREE_INSTANCES, 2);
+		final String lines = String.join("\n", CITIES.subList(0, 100).stream().map(city -> city + ";2022-01-01 00:00:00.000;1.5").toList());
+		final TemperatureAggregates aggregates = new TemperatureAggregates();
+
+		// When
+		TemperatureLineParser.parseChunk(ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8)), partitioner.ownedCities(aggregates));
+
+		// Then
+		assertThat(aggregates.cities())
+				.isNotEmpty()
+				.containsExactlyElementsOf(CITIES.subList(0, 100).stream().filter(partitioner::owns).toList());
+	}
+
+	@Test
+	void testInit_shouldRejectIndexOutsideTheInstances() {
+		assertThatThrownBy(() -> partitioner(THREE_INSTANCES, 3))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("temperature.partition.index");
+	}
+
+	private static CityPartitioner partitioner(List<String> instances, int index) {
+		final CityPartitioner partitioner = new CityPartitioner();
+		ReflectionTestUtils.setField(partitioner, "instances", instances);
+		ReflectionTestUtils.setField(partitioner, "index", index);
+		partitioner.init();
+		return partitioner;
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CityTemperatureAggregateTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {"1970-01-01", "1969-12-31", "2000-02-29", "2023-03-01", "2024-12-31", "1600-03-01"})
+	void testEpochDay_shouldMatchLocalDate(String date) {
+		// Given
+		final LocalDate localDate = LocalDate.parse(date);
+
+		// When & Then
+		assertThat(CityTemperatureAggregate.epochDay(localDate.getYear(), localDate.getMonthValue(),
+				localDate.getDayOfMonth())).isEqualTo(localDate.toEpochDay());
+	}
+
+	@Test
+	void testRangeAverage_shouldCombineWholeMonthsAndSingleDays() {
+		// Given
+		final var aggregate = new CityTemperatureAggregate();
+		aggregate.add(2021, 12, 31, 1000);
+		aggregate.add(2022, 1, 15, 2000);
+		aggregate.add(2022, 2, 1, 3000);
+		aggregate.add(2022, 2, 28, 4000);
+		aggregate.add(2022, 3, 1, 5000);
+
+		// When
+		final var range = aggregate.rangeAverage(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 2, 27));
+		final var spanningYears = aggregate.rangeAverage(LocalDate.of(2021, 12, 31), LocalDate.of(2022, 3, 1));
+
+		// Then
+		assertThat(range).isEqualTo(new TemperatureRangeResult(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 2, 27), 2, 25.0));
+		assertThat(spanningYears.count()).isEqualTo(5);
+		assertThat(spanningYears.averageTemperature()).isEqualTo(30.0);
+	}
+
+	@Test
+	void testRangeAverage_outsideData_shouldReturnNoAverage() {
+		// Given
+		final var aggregate = new CityTemperatureAggregate();
+		aggregate.add(2022, 6, 1, 1000);
+
+		// When
+		final var range = aggregate.rangeAverage(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+
+		// Then
+		assertThat(range.count()).isZero();
+		assertThat(range.averageTemperature()).isNull();
+	}
+
+	@Test
+	void testMerge_withEarlierYear_shouldKeepDailyIndexAligned() {
+		// Given
+		final var aggregate = new CityTemperatureAggregate();
+		aggregate.add(2022, 3, 10, 1000);
+		final var earlier = new CityTemperatureAggregate();
+		earlier.add(2020, 2, 29, 2000);
+
+		// When
+		aggregate.merge(earlier);
+
+		// Then
+		assertThat(aggregate.rangeAverage(LocalDate.of(2022, 3, 10), LocalDate.of(2022, 3, 10)).averageTemperature())
+				.isEqualTo(10.0);
+		assertThat(aggregate.rangeAverage(LocalDate.of(2020, 2, 29), LocalDate.of(2020, 2, 29)).averageTemperature())
+				.isEqualTo(20.0);
+		assertThat(aggregate.dayCount()).isEqualTo(2);
+	}
+
+	@Test
+	void testAdd_withStrayYear_shouldNotAllocateTheYearsInBetween() {
+		// Given
+		final var aggregate = new CityTemperatureAggregate();
+		aggregate.add(2024, 5, 1, 1500);
+		final long sizeOfOneYear = aggregate.estimatedSizeBytes();
+
+		// When
+		aggregate.add(1, 1, 1, 500);
+
+		// Then
+		assertThat(aggregate.estimatedSizeBytes()).isLessThan(3 * sizeOfOneYear);
+		assertThat(aggregate.yearlyAverages()).containsExactly(new TemperatureResult(1, 5.0),
+				new TemperatureResult(2024, 15.0));
+		assertThat(aggregate.rangeAverage(LocalDate.of(1, 1, 1), LocalDate.of(2024, 12, 31)).averageTemperature())
+				.isEqualTo(10.0);
+		assertThat(aggregate.dayCount()).isEqualTo(2);
+	}
+
+	@Test
+	void testYearlyPercentiles_shouldEstimatePercentilesOfEachYear() {
+		// Given
+		final var aggregate = new CityTemperatureAggregate();
+		final var earlier = new CityTemperatureAggregate();
+		for (int i = 0; i <= 1000; i++) {
+			aggregate.add(2022, 1 + i % 12, 1, i);
+			earlier.add(2021, 6, 1, -i);
+		}
+
+		// When
+		aggregate.merge(earlier);
+		final var percentiles = aggregate.yearlyPercentiles(List.of(0.0, 50.0, 95.0, 100.0));
+
+		// Then
+		assertThat(percentiles).containsExactly(
+				new TemperaturePercentiles(2021, 1001, Map.of("p0", -10.0, "p50", -5.0, "p95", -0.5, "p100", 0.0)),
+				new TemperaturePercentiles(2022, 1001, Map.of("p0", 0.0, "p50", 5.0, "p95", 9.5, "p100", 10.0)));
+		assertThat(percentiles.get(0).percentiles().keySet()).containsExactly("p0", "p50", "p95", "p100");
+	}
+
+	@Test
+	void testCopy_shouldNotShareDigests() {
+		// Given
+		final var aggregate = new CityTemperatureAggregate();
+		aggregate.add(2022, 1, 1, 1000);
+		final var copy = aggregate.copy();
+
+		// When
+		copy.add(2022, 1, 1, 3000);
+
+		// Then
+		assertThat(aggregate.yearlyPercentiles(List.of(100.0)))
+				.containsExactly(new TemperaturePercentiles(2022, 1, Map.of("p100", 10.0)));
+		assertThat(copy.yearlyPercentiles(List.of(100.0)))
+				.containsExactly(new TemperaturePercentiles(2022, 2, Map.of("p100", 30.0)));
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+class PartitionClientTest {
+
+	// Accepts connections into its backlog but never answers
+	private ServerSocket silentPeer;
+
+	private PartitionClient partitionClient;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		silentPeer = new ServerSocket(0);
+		partitionClient = new PartitionClient(RestClient.builder());
+		ReflectionTestUtils.setField(partitionClient, "connectTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(partitionClient, "readTimeoutMs", 200L);
+		ReflectionTestUtils.setField(partitionClient, "maxConcurrentRequests", 1);
+		partitionClient.start();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		partitionClient.stop();
+		silentPeer.close();
+	}
+
+	@Test
+	void testGetYearlyAverageTemperatures_withSilentPeer_shouldFailWithGatewayTimeout() {
+		// When
+		final var results = partitionClient.getYearlyAverageTemperatures(peerUrl(), List.of("CityA"));
+
+		// Then
+		assertThatThrownBy(results::join)
+				.isInstanceOf(CompletionException.class)
+				.cause()
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+	}
+
+	@Test
+	void testForward_withSilentPeer_shouldFailWithGatewayTimeout() {
+		// Given
+		final var request = new MockHttpServletRequest("GET", "/v1/temperatures/CityA");
+
+		// When & Then
+		assertThatThrownBy(() -> partitionClient.forward(peerUrl(), request, new MockHttpServletResponse()))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+	}
+
+	@Test
+	void testOpenYearlyAverageTemperatures_withSilentPeer_shouldFailWithGatewayTimeout() {
+		// When & Then
+		assertThatThrownBy(() -> partitionClient.openYearlyAverageTemperatures(peerUrl()))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+	}
+
+	@Test
+	void testGetYearlyAverageTemperatures_beyondMaxConcurrentRequests_shouldRefuse() {
+		// Given
+		partitionClient.getYearlyAverageTemperatures(peerUrl(), List.of("CityA"));
+		partitionClient.getYearlyAverageTemperatures(peerUrl(), List.of("CityB"));
+
+		// When & Then
+		assertThatThrownBy(() -> partitionClient.getYearlyAverageTemperatures(peerUrl(), List.of("CityC")))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+	}
+
+	private String peerUrl() {
+		return "http://localhost:" + silentPeer.getLocalPort();
+	}
+}
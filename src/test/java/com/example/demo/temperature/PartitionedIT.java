@@ -0,0 +1,176 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import com.example.demo.DemoApplication;
+import com.example.demo.utils.filereader.FileReaderStrategy;
+import com.example.demo.utils.parser.TemperatureLineParser;
+
+/**
+ * Two partitioned instances on localhost, each reading the same lines.
+ */
+class PartitionedIT {
+
+	private static final List<String> CITIES = IntStream.range(0, 20).mapToObj(i -> "City" + i).toList();
+
+	private static final List<ConfigurableApplicationContext> instances = new ArrayList<>();
+
+	private static final List<String> urls = new ArrayList<>();
+
+	private final TestRestTemplate restTemplate = new TestRestTemplate();
+
+	@BeforeAll
+	static void startInstances() throws Exception {
+		final List<Integer> ports = List.of(freePort(), freePort());
+		ports.forEach(port -> urls.add("http://localhost:" + port));
+		for (int index = 0; index < ports.size(); index++) {
+			instances.add(new SpringApplicationBuilder(DemoApplication.class).run(
+					"--server.port=" + ports.get(index),
+					"--temperature.snapshot.file=",
+					"--temperature.refresh.watch=false",
+					"--temperature.partition.instances=" + String.join(",", urls),
+					"--temperature.partition.index=" + index));
+		}
+		awaitLoaded();
+
+		// Both instances read the same lines through the mocked reader of the test configuration
+		final byte[] lines = CITIES.stream()
+				.flatMap(city -> Stream.of(city + ";2022-01-01 00:00:00.000;10.0", city + ";2022-06-01 00:00:00.000;20.0"))
+				.collect(Collectors.joining("\n"))
+				.getBytes(StandardCharsets.UTF_8);
+		for (ConfigurableApplicationContext instance : instances) {
+			final FileReaderStrategy fileReader = instance.getBean(FileReaderStrategy.class);
+			when(fileReader.chunkParser()).thenReturn(TemperatureLineParser::parseChunk);
+			when(fileReader.readChunks(any())).thenAnswer(invocation -> {
+				final Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+				consumer.accept(ByteBuffer.wrap(lines));
+				return null;
+			});
+			instance.getBean(TemperatureDataScheduler.class).refreshData();
+		}
+	}
+
+	@AfterAll
+	static void stopInstances() {
+		instances.forEach(ConfigurableApplicationContext::close);
+	}
+
+	@Test
+	void shouldLoadEveryCityOnExactlyOneInstance() {
+		// When
+		final List<List<String>> loaded = instances.stream()
+				.map(instance -> instance.getBean(TemperatureService.class).currentSnapshot().aggregates().cities())
+				.map(List::copyOf)
+				.toList();
+
+		// Then
+		assertThat(loaded).allSatisfy(cities -> assertThat(cities).isNotEmpty());
+		assertThat(loaded.get(0)).doesNotContainAnyElementsOf(loaded.get(1));
+		assertThat(Stream.concat(loaded.get(0).stream(), loaded.get(1).stream())).containsExactlyInAnyOrderElementsOf(CITIES);
+	}
+
+	@Test
+	void shouldForwardRequestsForCitiesOwnedByAnotherInstance() {
+		for (String city : CITIES) {
+			// When
+			final var response = restTemplate.getForEntity(urls.get(0) + "/v1/temperatures/" + city, TemperatureResult[].class);
+
+			// Then
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(response.getHeaders().getETag()).isNotBlank();
+			assertThat(response.getBody()).containsExactly(new TemperatureResult(2022, 15.0));
+		}
+	}
+
+	@Test
+	void shouldFanOutBatchRequests() {
+		// Given
+		final List<String> requested = new ArrayList<>(CITIES);
+		requested.add("UnknownCity");
+
+		// When
+		final var response = restTemplate.postForEntity(urls.get(1) + "/v1/temperatures/batch", requested,
+				CityTemperatures[].class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).extracting(CityTemperatures::city).containsExactlyElementsOf(requested);
+		assertThat(response.getBody()).allMatch(result -> result.city().equals("UnknownCity")
+				? result.yearlyAverages().isEmpty()
+				: result.yearlyAverages().equals(List.of(new TemperatureResult(2022, 15.0))));
+	}
+
+	@Test
+	void shouldStreamCitiesOfEveryInstance() {
+		// Given
+		final var headers = new HttpHeaders();
+		headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+
+		// When
+		final var response = restTemplate.exchange(urls.get(0) + "/v1/temperatures", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().lines())
+				.filteredOn(line -> !line.contains("PushedCity")) // pushed by another test
+				.hasSize(CITIES.size())
+				.allMatch(line -> line.endsWith("[{\"year\":2022,\"averageTemperature\":15.0}]}"));
+	}
+
+	@Test
+	void shouldRejectPushedReadingsOfCitiesOwnedByAnotherInstance() {
+		// Given
+		final List<String> cities = IntStream.range(0, 20).mapToObj(i -> "PushedCity" + i).toList();
+		final var readings = cities.stream().map(city -> new Temperature(city, LocalDateTime.of(2023, 1, 1, 0, 0), 1.0)).toList();
+		final long owned = cities.stream().filter(instances.get(0).getBean(CityPartitioner.class)::owns).count();
+
+		// When
+		final var response = restTemplate.postForEntity(urls.get(0) + "/v1/temperatures", readings, PushResult.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(response.getBody()).isEqualTo(new PushResult(owned, cities.size() - owned));
+	}
+
+	private static void awaitLoaded() throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		for (String url : urls) {
+			while (new TestRestTemplate().getForEntity(url + "/actuator/health/readiness", String.class).getStatusCode() != HttpStatus.OK) {
+				assertThat(System.nanoTime()).isLessThan(deadline);
+				Thread.sleep(50);
+			}
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
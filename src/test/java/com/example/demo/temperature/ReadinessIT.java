@@ -0,0 +1,93 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import com.example.demo.DemoApplication;
+import com.example.demo.utils.filereader.FileReaderStrategy;
+
+/**
+ * Starts an instance whose initial load is held back, to observe the health groups while it runs.
+ */
+class ReadinessIT {
+
+	private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+	private final TestRestTemplate restTemplate = new TestRestTemplate();
+
+	private ConfigurableApplicationContext instance;
+
+	@AfterEach
+	void tearDown() {
+		releaseLoad.countDown();
+		if (instance != null) {
+			instance.close();
+		}
+	}
+
+	@Test
+	void shouldReportOutOfServiceUntilTheInitialLoadHasFinished() throws Exception {
+		// Given
+		final int port = freePort();
+		final String url = "http://localhost:" + port + "/actuator/health";
+		instance = new SpringApplicationBuilder(DemoApplication.class)
+				.listeners((ApplicationListener<ContextRefreshedEvent>) this::holdBackInitialLoad)
+				.run("--server.port=" + port, "--temperature.snapshot.file=", "--temperature.refresh.watch=false");
+
+		// When
+		final var loading = restTemplate.getForEntity(url + "/readiness", String.class);
+		final var liveWhileLoading = restTemplate.getForEntity(url + "/liveness", String.class);
+		releaseLoad.countDown();
+		final var loaded = awaitStatus(url + "/readiness", HttpStatus.OK);
+
+		// Then
+		assertThat(loading.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(loading.getBody()).contains("OUT_OF_SERVICE");
+		assertThat(liveWhileLoading.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(loaded.getBody()).contains("UP");
+	}
+
+	// Stubbed once the beans exist, before the initial load starts on ApplicationStartedEvent
+	private void holdBackInitialLoad(ContextRefreshedEvent event) {
+		try {
+			doAnswer(invocation -> {
+				releaseLoad.await();
+				return null;
+			}).when(event.getApplicationContext().getBean(FileReaderStrategy.class)).readChunks(any());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private ResponseEntity<String> awaitStatus(String url, HttpStatus status) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		var response = restTemplate.getForEntity(url, String.class);
+		while (response.getStatusCode() != status) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(10);
+			response = restTemplate.getForEntity(url, String.class);
+		}
+		return response;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
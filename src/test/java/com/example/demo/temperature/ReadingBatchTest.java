@@ -0,0 +1,52 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ReadingBatchTest {
+
+	@Test
+	void testOfLines_shouldSkipMalformedLines() {
+		// Given
+		final byte[] lines = """
+				Kraków;2022-03-04 05:06:07.000;-3.25
+				not a reading
+				Kraków;2022-03-05 05:06:07.000;4.5
+				""".getBytes(StandardCharsets.UTF_8);
+
+		// When
+		final ReadingBatch batch = ReadingBatch.ofLines(lines, new CityPartitioner());
+
+		// Then
+		assertThat(batch.size()).isEqualTo(2);
+		assertThat(batch.rejected()).isEqualTo(1);
+		assertThat(batch.city(0)).isEqualTo("Kraków").isSameAs(batch.city(1));
+		assertThat(batch.date(0)).isEqualTo(ReadingBatch.pack(2022, 3, 4));
+		assertThat(batch.temperature(0)).isEqualTo(-325);
+	}
+
+	@Test
+	void testOf_shouldSkipReadingsTheFileFormatCannotHold() {
+		// Given
+		final LocalDateTime timestamp = LocalDateTime.of(2022, 3, 4, 5, 6);
+
+		// When
+		final ReadingBatch batch = ReadingBatch.of(Arrays.asList(
+				new Temperature("Kraków", timestamp, 4.25),
+				new Temperature("Kra;ków", timestamp, 1.0),
+				new Temperature(null, timestamp, 1.0),
+				new Temperature("Kraków", null, 1.0),
+				new Temperature("Kraków", timestamp, Double.NaN),
+				null), new CityPartitioner());
+
+		// Then
+		assertThat(batch.size()).isEqualTo(1);
+		assertThat(batch.rejected()).isEqualTo(5);
+		assertThat(batch.date(0)).isEqualTo(ReadingBatch.pack(2022, 3, 4));
+		assertThat(batch.temperature(0)).isEqualTo(425);
+	}
+}
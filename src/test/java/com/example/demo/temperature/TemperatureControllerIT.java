@@ -4,16 +4,24 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "temperature.snapshot.file=")
 class TemperatureControllerIT {
 
 	@LocalServerPort
@@ -26,7 +34,10 @@ class TemperatureControllerIT {
 	private TemperatureService temperatureService;
 
 	@BeforeEach
-	void setUp() {
+	void setUp() throws InterruptedException {
+		// The initial load publishes the empty file of the mocked reader, so it must not overwrite the seeded data
+		awaitReadiness();
+		dropAllData();
 		seedTemperatureData();
 	}
 
@@ -85,6 +96,188 @@ class TemperatureControllerIT {
 	}
 
 
+	@Test
+	void shouldReturnMonthlyStatisticsByCity() {
+		// When
+		final var response = makeGetRequest("/v1/temperatures/CityB/statistics?granularity=month",
+				TemperatureStatistics[].class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody())
+				.usingRecursiveFieldByFieldElementComparatorIgnoringFields("count") // data is seeded before each test
+				.containsExactly(new TemperatureStatistics(2022, 1, 1, 17.0, 17.0, 17.0));
+	}
+
+	@Test
+	void shouldReturnRequestedPercentilesByCity() {
+		// When
+		final var response = makeGetRequest("/v1/temperatures/CityA/percentiles?p=50,99.9", TemperaturePercentiles[].class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).containsExactly(
+				new TemperaturePercentiles(2021, 1, Map.of("p50", 15.5, "p99.9", 15.5)),
+				new TemperaturePercentiles(2022, 1, Map.of("p50", 16.0, "p99.9", 16.0)));
+	}
+
+	@Test
+	void shouldRejectPercentilesOutsideZeroToHundred() {
+		// When
+		final var response = makeGetRequest("/v1/temperatures/CityA/percentiles?p=50,101", String.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void shouldReturnAverageTemperatureForDateRange() {
+		// When
+		final var response = makeGetRequest("/v1/temperatures/CityA/range?from=2021-01-01&to=2021-12-31",
+				TemperatureRangeResult.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().averageTemperature()).isEqualTo(15.5);
+	}
+
+	@Test
+	void shouldRejectInvertedDateRange() {
+		// When
+		final var response = makeGetRequest("/v1/temperatures/CityA/range?from=2022-01-01&to=2021-01-01",
+				String.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void shouldRejectUnknownGranularity() {
+		// When
+		final var response = makeGetRequest("/v1/temperatures/CityB/statistics?granularity=week", String.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void shouldReturnYearlyAverageTemperatureForBatchOfCities() {
+		// When
+		final var response = restTemplate.postForEntity("http://localhost:" + port + "/v1/temperatures/batch",
+				List.of("CityB", "UnknownCity"), CityTemperatures[].class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).containsExactly(
+				new CityTemperatures("CityB", List.of(new TemperatureResult(2022, 17.0))),
+				new CityTemperatures("UnknownCity", List.of()));
+	}
+
+	@Test
+	void shouldMakePushedLinesVisibleToQueries() throws Exception {
+		// Given
+		final var headers = new HttpHeaders();
+		headers.setContentType(MediaType.TEXT_PLAIN);
+		final String lines = "PushedCity;2023-05-01 12:00:00.000;18.5\nnot a reading\nPushedCity;2023-05-02 12:00:00.000;19.5\n";
+
+		// When
+		final var response = restTemplate.postForEntity("http://localhost:" + port + "/v1/temperatures",
+				new HttpEntity<>(lines, headers), PushResult.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(response.getBody()).isEqualTo(new PushResult(2, 1));
+		assertThat(awaitYearlyAverages("PushedCity")).containsExactly(new TemperatureResult(2023, 19.0));
+	}
+
+	@Test
+	void shouldMakePushedJsonVisibleToQueries() throws Exception {
+		// Given
+		final var readings = List.of(new Temperature("PushedJsonCity", LocalDateTime.of(2024, 1, 1, 8, 0), -2.5));
+
+		// When
+		final var response = restTemplate.postForEntity("http://localhost:" + port + "/v1/temperatures", readings,
+				PushResult.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(response.getBody()).isEqualTo(new PushResult(1, 0));
+		assertThat(awaitYearlyAverages("PushedJsonCity")).containsExactly(new TemperatureResult(2024, -2.5));
+	}
+
+	@Test
+	void shouldStreamAllCitiesAsNdjson() {
+		// Given
+		final var headers = new HttpHeaders();
+		headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+
+		// When
+		final var response = restTemplate.exchange("http://localhost:" + port + "/v1/temperatures", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+		assertThat(response.getBody().lines()).containsExactly(
+				"{\"city\":\"CityA\",\"yearlyAverages\":[{\"year\":2021,\"averageTemperature\":15.5},{\"year\":2022,\"averageTemperature\":16.0}]}",
+				"{\"city\":\"CityB\",\"yearlyAverages\":[{\"year\":2022,\"averageTemperature\":17.0}]}");
+	}
+
+	@Test
+	void shouldAnswerNotModifiedWhileSnapshotIsUnchanged() {
+		// Given
+		final var first = makeGetRequest("/v1/temperatures/CityA", String.class);
+		final var headers = new HttpHeaders();
+		headers.setIfNoneMatch(first.getHeaders().getETag());
+
+		// When
+		final var unchanged = restTemplate.exchange("http://localhost:" + port + "/v1/temperatures/CityA", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+		seedTemperatureData();
+		final var changed = restTemplate.exchange("http://localhost:" + port + "/v1/temperatures/CityA", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class);
+
+		// Then
+		assertThat(first.getHeaders().getETag()).isNotBlank();
+		assertThat(first.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(unchanged.getBody()).isNull();
+		assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(changed.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+	}
+
+	@Test
+	void shouldReportReadinessOnceDataIsLoaded() {
+		// When
+		final var response = makeGetRequest("/actuator/health/readiness", String.class);
+
+		// Then
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).contains("UP");
+	}
+
+	@Test
+	void shouldExposeCacheAndStoreMetrics() {
+		// Given
+		makeGetRequest("/v1/temperatures/CityA", TemperatureResult[].class);
+
+		// When
+		final var cacheGets = makeGetRequest("/actuator/metrics/cache.gets?tag=cache:cityTemperatures", String.class);
+		final var storeCities = makeGetRequest("/actuator/metrics/temperature.store.cities", String.class);
+
+		// Then
+		assertThat(cacheGets.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(storeCities.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(storeCities.getBody()).contains("\"value\":2.0");
+	}
+
+	// Drops the cities pushed by other tests too, which replacing the data would put back
+	@SuppressWarnings("unchecked")
+	private void dropAllData() {
+		final var snapshot = (AtomicReference<TemperatureSnapshot>) ReflectionTestUtils.getField(temperatureService, "snapshot");
+		snapshot.set(new TemperatureSnapshot(snapshot.get().version() + 1, new TemperatureAggregates()));
+	}
+
 	private void seedTemperatureData() {
 		temperatureService.updateCityTemperatureData(List.of(
 				new Temperature("CityA", LocalDateTime.of(2021, 1, 1, 0, 0), 15.5),
@@ -93,6 +286,24 @@ class TemperatureControllerIT {
 		));
 	}
 
+	private void awaitReadiness() throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (makeGetRequest("/actuator/health/readiness", String.class).getStatusCode() != HttpStatus.OK) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private TemperatureResult[] awaitYearlyAverages(String city) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		TemperatureResult[] results = makeGetRequest("/v1/temperatures/" + city, TemperatureResult[].class).getBody();
+		while (results.length == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			results = makeGetRequest("/v1/temperatures/" + city, TemperatureResult[].class).getBody();
+		}
+		return results;
+	}
+
 	private <T> ResponseEntity<T> makeGetRequest(String url, Class<T> responseType) {
 		return restTemplate.getForEntity("http://localhost:" + port + url, responseType);
 	}
@@ -0,0 +1,126 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class TemperatureControllerTest {
+
+	private static final String PEER = "http://peer";
+
+	@Mock
+	private TemperatureService temperatureService;
+
+	@Mock
+	private TemperatureDataInitializer temperatureDataInitializer;
+
+	@Mock
+	private IngestionProgress ingestionProgress;
+
+	@Mock
+	private TemperatureIngestionBuffer ingestionBuffer;
+
+	@Mock
+	private CityPartitioner cityPartitioner;
+
+	@Mock
+	private PartitionClient partitionClient;
+
+	@Mock
+	private ClientHttpResponse peerStream;
+
+	private TemperatureController temperatureController;
+
+	@BeforeEach
+	void setUp() {
+		temperatureController = new TemperatureController(temperatureService, temperatureDataInitializer,
+				ingestionProgress, new ObjectMapper(), ingestionBuffer, cityPartitioner, partitionClient);
+		when(temperatureDataInitializer.isDataAvailable()).thenReturn(true);
+		lenient().when(cityPartitioner.isPartitioned()).thenReturn(true);
+		lenient().when(cityPartitioner.peers()).thenReturn(List.of(PEER));
+	}
+
+	@Test
+	void testGetYearlyAverageTemperatureByCities_withCityLeftOutByPeer_shouldAnswerItAsUnknown() {
+		// Given
+		when(cityPartitioner.ownerOf(anyString())).thenReturn(PEER);
+		when(partitionClient.getYearlyAverageTemperatures(PEER, List.of("CityA", "CityB")))
+				.thenReturn(CompletableFuture.completedFuture(List.of(
+						new CityTemperatures("CityB", List.of(new TemperatureResult(2022, 15.0))))));
+
+		// When
+		final var results = temperatureController.getYearlyAverageTemperatureByCities(List.of("CityA", "CityB"), null);
+
+		// Then
+		assertThat(results).containsExactly(
+				new CityTemperatures("CityA", List.of()),
+				new CityTemperatures("CityB", List.of(new TemperatureResult(2022, 15.0))));
+	}
+
+	@Test
+	void testGetYearlyAverageTemperatureOfAllCities_withUnreachablePeer_shouldFailBeforeStreaming() {
+		// Given
+		when(partitionClient.openYearlyAverageTemperatures(PEER))
+				.thenThrow(new ResponseStatusException(HttpStatus.BAD_GATEWAY));
+
+		// When & Then
+		assertThatThrownBy(() -> temperatureController.getYearlyAverageTemperatureOfAllCities(null))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+		verify(temperatureService, never()).forEachYearlyAverageTemperature(any());
+	}
+
+	@Test
+	void testGetYearlyAverageTemperatureOfAllCities_withPeerFailingHalfWay_shouldEndWithErrorRecord() throws Exception {
+		// Given
+		when(partitionClient.openYearlyAverageTemperatures(PEER)).thenReturn(peerStream);
+		when(peerStream.getBody()).thenReturn(new InputStream() {
+
+			private final InputStream partial = new ByteArrayInputStream(
+					"{\"city\":\"CityB\",\"yearlyAverages\":[]}\n{\"city\":\"Ci".getBytes(StandardCharsets.UTF_8));
+
+			@Override
+			public int read() throws IOException {
+				final int read = partial.read();
+				if (read < 0) {
+					throw new IOException("Connection reset");
+				}
+				return read;
+			}
+		});
+		final var output = new ByteArrayOutputStream();
+
+		// When
+		temperatureController.getYearlyAverageTemperatureOfAllCities(null).getBody().writeTo(output);
+
+		// Then
+		assertThat(output.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+				"{\"city\":\"CityB\",\"yearlyAverages\":[]}",
+				"{\"city\":\"Ci",
+				"{\"error\":\"Instance http://peer failed while streaming its cities, the stream is incomplete\"}");
+		verify(peerStream).close();
+	}
+}
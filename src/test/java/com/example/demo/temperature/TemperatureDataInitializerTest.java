@@ -0,0 +1,103 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.demo.utils.exceptions.FileProcessingException;
+
+@ExtendWith(MockitoExtension.class)
+class TemperatureDataInitializerTest {
+
+	@InjectMocks
+	private TemperatureDataInitializer temperatureDataInitializer;
+
+	@Mock
+	private TemperatureDataScheduler temperatureDataScheduler;
+
+	@Mock
+	private TemperatureService temperatureService;
+
+	@Mock
+	private IngestionProgress ingestionProgress;
+
+	@Test
+	void testHealth_beforeDataIsLoaded_shouldBeOutOfService() {
+		// Given
+		final var healthIndicator = new TemperatureDataHealthIndicator(temperatureDataInitializer, ingestionProgress);
+		final var progress = new IngestionProgress.Status(true, 1000, 100, 4, 40, 9L);
+		when(ingestionProgress.status()).thenReturn(progress);
+
+		// When
+		final var health = healthIndicator.health();
+
+		// Then
+		assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+		assertThat(health.getDetails()).containsEntry("ingestion", progress);
+		assertThat(temperatureDataInitializer.isLoaded()).isFalse();
+	}
+
+	@Test
+	void testLoad_shouldReportUpAndMakeDataAvailable() {
+		// Given
+		final var healthIndicator = new TemperatureDataHealthIndicator(temperatureDataInitializer, ingestionProgress);
+
+		// When
+		temperatureDataInitializer.load();
+
+		// Then
+		verify(temperatureDataScheduler).initializeData();
+		assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+		assertThat(temperatureDataInitializer.isDataAvailable()).isTrue();
+	}
+
+	@Test
+	void testIsDataAvailable_beforeLoad_shouldDependOnPublishedSnapshot() {
+		// Given
+		when(temperatureService.currentSnapshot()).thenReturn(TemperatureSnapshot.EMPTY);
+
+		// When & Then
+		assertThat(temperatureDataInitializer.isDataAvailable()).isFalse();
+	}
+
+	@Test
+	void testLoad_withFailure_shouldRetryUntilLoaded() {
+		// Given
+		ReflectionTestUtils.setField(temperatureDataInitializer, "retryDelayMs", 1L);
+		doThrow(new FileProcessingException("Simulated failure"))
+				.doNothing()
+				.when(temperatureDataScheduler).initializeData();
+
+		// When
+		temperatureDataInitializer.load();
+
+		// Then
+		verify(temperatureDataScheduler, times(2)).initializeData();
+		assertThat(temperatureDataInitializer.isLoaded()).isTrue();
+	}
+
+	@Test
+	void testLoad_withUnexpectedFailure_shouldRetryUntilLoaded() {
+		// Given
+		ReflectionTestUtils.setField(temperatureDataInitializer, "retryDelayMs", 1L);
+		doThrow(new IllegalStateException("Simulated parser bug"))
+				.doNothing()
+				.when(temperatureDataScheduler).initializeData();
+
+		// When
+		temperatureDataInitializer.load();
+
+		// Then
+		verify(temperatureDataScheduler, times(2)).initializeData();
+		assertThat(temperatureDataInitializer.isLoaded()).isTrue();
+	}
+}
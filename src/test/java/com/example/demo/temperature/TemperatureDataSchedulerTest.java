@@ -1,32 +1,48 @@
 package com.example.demo.temperature;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import com.example.demo.utils.exceptions.FileProcessingException;
 import com.example.demo.utils.filereader.FileReaderStrategy;
+import com.example.demo.utils.filereader.ReadCheckpoint;
+import com.example.demo.utils.parser.ParsedChunk;
+import com.example.demo.utils.parser.TemperatureLineParser;
 
 @ExtendWith(MockitoExtension.class)
 class TemperatureDataSchedulerTest {
@@ -43,54 +59,68 @@ class TemperatureDataSchedulerTest {
 	@Mock
 	private TemperatureService temperatureService;
 
-	private List<Temperature> mockTemperatures;
-	private Future<List<Temperature>> mockFuture;
+	@Mock
+	private TemperatureSnapshotStore snapshotStore;
+
+	@Mock
+	private IngestionProgress ingestionProgress;
+
+	@Mock
+	private TemperatureMetrics temperatureMetrics;
+
+	@Mock
+	private CityPartitioner cityPartitioner;
+
+	@Captor
+	private ArgumentCaptor<TemperatureAggregates> aggregatesCaptor;
 
 	@BeforeEach
 	void setUp() throws Exception {
-		mockTemperatures = List.of(
-				Temperature.builder()
-						.city("CityA")
-						.timestamp(LocalDateTime.of(2022, 1, 1, 0, 0))
-						.temperature(15.5)
-						.build()
-		);
-
-		mockFuture = mock(Future.class);
-		lenient().when(mockFuture.get()).thenReturn(mockTemperatures);
-		lenient().when(executorService.submit(any(Callable.class))).thenReturn(mockFuture);
+		lenient().when(executorService.submit(any(Callable.class))).thenAnswer(invocation -> {
+			final Callable<?> task = invocation.getArgument(0);
+			return CompletableFuture.completedFuture(task.call());
+		});
+		lenient().when(temperatureService.currentSnapshot()).thenReturn(TemperatureSnapshot.EMPTY);
+		lenient().when(cityPartitioner.ownedCities(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		lenient().when(fileReaderStrategy.chunkParser()).thenReturn(TemperatureLineParser::parseChunk);
 	}
 
 	@Test
 	void testRefreshData_shouldUpdateCityTemperatureData() throws Exception {
 		//Given
 		doAnswer(invocation -> {
-			java.util.function.Consumer<String> consumer = invocation.getArgument(0);
-			consumer.accept("CityA;2022-01-01 00:00:00.000;15.5");
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5"));
 			return null;
-		}).when(fileReaderStrategy).readFile(any());
+		}).when(fileReaderStrategy).readChunks(any());
 
 		//When
 		temperatureDataScheduler.refreshData();
 
 		//Then
-		verify(temperatureService).updateCityTemperatureData(mockTemperatures);
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
 		verify(executorService, atLeastOnce()).submit(any(Callable.class));
+		verify(ingestionProgress).chunkParsed(34, 1);
+		verify(ingestionProgress).finish();
+		verify(temperatureMetrics).chunkParsed(34, new ParsedChunk(1, 0));
+		verify(temperatureMetrics).refreshFinished(TemperatureMetrics.FULL);
+		assertThat(aggregatesCaptor.getValue().get("CityA").yearlyAverages())
+				.containsExactly(new TemperatureResult(2022, 15.5));
 	}
 
 	@Test
 	void testRefreshData_withExecutionException_shouldThrowFileProcessingException() throws Exception {
 		//Given
-		Future<List<Temperature>> mockFuture = mock(Future.class);
+		Future<TemperatureAggregates> mockFuture = mock(Future.class);
 		when(mockFuture.get()).thenThrow(new ExecutionException(new RuntimeException("Simulated Exception")));
 
 		when(executorService.submit(any(Callable.class))).thenReturn(mockFuture);
 
 		doAnswer(invocation -> {
-			java.util.function.Consumer<String> consumer = invocation.getArgument(0);
-			consumer.accept("CityA;2022-01-01 00:00:00.000;15.5");
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5"));
 			return null;
-		}).when(fileReaderStrategy).readFile(any());
+		}).when(fileReaderStrategy).readChunks(any());
 
 		//When & Then
 		assertThatThrownBy(() -> temperatureDataScheduler.refreshData())
@@ -98,45 +128,63 @@ class TemperatureDataSchedulerTest {
 				.hasMessageContaining("Error processing temperature data in parallel");
 
 		verify(mockFuture, times(1)).get();
-		verify(temperatureService, never()).updateCityTemperatureData(anyList());
+		verify(temperatureService, never()).replaceCityTemperatureData(any(TemperatureAggregates.class));
 	}
 
 	@Test
-	void testRefreshData_withEmptyFile_shouldNotUpdateCityTemperatureData() throws Exception {
+	void testRefreshData_withEmptyFile_shouldPublishNoCities() throws Exception {
 		//Given
 		doAnswer(invocation -> {
 			return null;
-		}).when(fileReaderStrategy).readFile(any());
+		}).when(fileReaderStrategy).readChunks(any());
 
 		//When
 		temperatureDataScheduler.refreshData();
 
 		//Then
 		verify(executorService, never()).submit(any(Callable.class));
-		verify(temperatureService, never()).updateCityTemperatureData(anyList());
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
+		verify(temperatureMetrics, never()).dataCleared();
+		assertThat(aggregatesCaptor.getValue().isEmpty()).isTrue();
 	}
 
 	@Test
-	void testRefreshData_withMalformedDataLine_shouldNotUpdateCityTemperatureData() throws Exception {
+	void testRefreshData_withTruncatedFile_shouldClearPreviousData() throws Exception {
+		//Given
+		final var loaded = new TemperatureAggregates();
+		loaded.add("CityA", 2022, 1, 1, 1550);
+		when(temperatureService.currentSnapshot()).thenReturn(TemperatureSnapshot.EMPTY.next(loaded));
+
+		//When
+		temperatureDataScheduler.refreshData();
+
+		//Then
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
+		verify(temperatureMetrics).dataCleared();
+		assertThat(aggregatesCaptor.getValue().cities()).isEmpty();
+	}
+
+	@Test
+	void testRefreshData_withMalformedDataLine_shouldPublishNoCities() throws Exception {
 		//given
 		doAnswer(invocation -> {
-			java.util.function.Consumer<String> consumer = invocation.getArgument(0);
-			consumer.accept("CityA;InvalidTimestamp;InvalidTemperature");  // Simulate malformed data
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;InvalidTimestamp;InvalidTemperature"));  // Simulate malformed data
 			return null;
-		}).when(fileReaderStrategy).readFile(any());
+		}).when(fileReaderStrategy).readChunks(any());
 
 		//when
 		temperatureDataScheduler.refreshData();
 
 		//then
-		verify(executorService, never()).submit(any(Callable.class));  // Ensure no tasks are submitted
-		verify(temperatureService, never()).updateCityTemperatureData(anyList());  // Ensure no update
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
+		assertThat(aggregatesCaptor.getValue().isEmpty()).isTrue();
 	}
 
 	@Test
 	void testRefreshData_withIOException_shouldThrowFileProcessingException() throws Exception {
 		//Given
-		doThrow(new java.io.IOException("Test IOException")).when(fileReaderStrategy).readFile(any());
+		doThrow(new java.io.IOException("Test IOException")).when(fileReaderStrategy).readChunks(any());
 
 		//When & Then
 		assertThatThrownBy(() -> temperatureDataScheduler.refreshData())
@@ -144,6 +192,322 @@ class TemperatureDataSchedulerTest {
 				.hasMessageContaining("Error reading the temperature file");
 
 		verify(executorService, never()).submit(any(Callable.class));
-		verify(temperatureService, never()).updateCityTemperatureData(anyList());
+		verify(temperatureService, never()).replaceCityTemperatureData(any(TemperatureAggregates.class));
+	}
+
+	@Test
+	void testRefreshData_withMultipleChunks_shouldMergeAllChunks() throws Exception {
+		//Given
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5\r\nCityA;2022-01-02 00:00:00.000;16.5\n"));
+			consumer.accept(chunkOf("CityB;2021-01-01 00:00:00.000;10.0"));
+			return null;
+		}).when(fileReaderStrategy).readChunks(any());
+
+		//When
+		temperatureDataScheduler.refreshData();
+
+		//Then
+		verify(executorService, times(2)).submit(any(Callable.class));
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
+		assertThat(aggregatesCaptor.getValue().get("CityA").yearlyAverages())
+				.containsExactly(new TemperatureResult(2022, 16.0));
+		assertThat(aggregatesCaptor.getValue().get("CityB").yearlyAverages())
+				.containsExactly(new TemperatureResult(2021, 10.0));
+	}
+
+	@Test
+	void testRefreshData_withAppendedData_shouldMergeOnlyAppendedChunks() throws Exception {
+		//Given
+		ReflectionTestUtils.setField(temperatureDataScheduler, "incremental", true);
+		final var checkpoint = new ReadCheckpoint(35, 35, 1L, false);
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5"));
+			return checkpoint;
+		}).when(fileReaderStrategy).readChunks(any());
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(1);
+			consumer.accept(chunkOf("\nCityA;2022-01-02 00:00:00.000;16.5\n"));
+			return new ReadCheckpoint(71, 35, 1L, true);
+		}).when(fileReaderStrategy).readAppendedChunks(eq(checkpoint), any());
+
+		//When
+		temperatureDataScheduler.refreshData();
+		temperatureDataScheduler.refreshData();
+
+		//Then
+		verify(fileReaderStrategy, times(1)).readChunks(any());
+		verify(temperatureService).replaceCityTemperatureData(any(TemperatureAggregates.class));
+		verify(temperatureService).updateCityTemperatureData(aggregatesCaptor.capture());
+		assertThat(aggregatesCaptor.getValue().get("CityA").yearlyAverages())
+				.containsExactly(new TemperatureResult(2022, 16.5));
+	}
+
+	@Test
+	void testRefreshData_withRewrittenFile_shouldReloadCompletely() throws Exception {
+		//Given
+		ReflectionTestUtils.setField(temperatureDataScheduler, "incremental", true);
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5"));
+			return new ReadCheckpoint(35, 35, 1L, false);
+		}).when(fileReaderStrategy).readChunks(any());
+		when(fileReaderStrategy.readAppendedChunks(any(), any())).thenReturn(null);
+
+		//When
+		temperatureDataScheduler.refreshData();
+		temperatureDataScheduler.refreshData();
+
+		//Then
+		verify(fileReaderStrategy, times(2)).readChunks(any());
+		verify(temperatureService, times(2)).replaceCityTemperatureData(any(TemperatureAggregates.class));
+		verify(temperatureService, never()).updateCityTemperatureData(any(TemperatureAggregates.class));
+	}
+
+	@Test
+	void testRefreshIfChanged_withUnchangedFile_shouldSkipRefresh(@TempDir Path tempDir) throws Exception {
+		//Given
+		final Path file = Files.writeString(tempDir.resolve("temperatures.csv"), "CityA;2022-01-01 00:00:00.000;15.5");
+		when(fileReaderStrategy.sourcePath()).thenReturn(Optional.of(file));
+
+		//When
+		temperatureDataScheduler.refreshIfChanged();
+		temperatureDataScheduler.refreshIfChanged();
+		Files.writeString(file, "\nCityA;2022-01-02 00:00:00.000;16.5", StandardOpenOption.APPEND);
+		temperatureDataScheduler.refreshIfChanged();
+
+		//Then
+		verify(fileReaderStrategy, times(2)).readChunks(any());
+	}
+
+	@Test
+	void testRefreshIfChanged_afterFailedRefresh_shouldRetryUnchangedFile(@TempDir Path tempDir) throws Exception {
+		//Given
+		final Path file = Files.writeString(tempDir.resolve("temperatures.csv"), "CityA;2022-01-01 00:00:00.000;15.5");
+		when(fileReaderStrategy.sourcePath()).thenReturn(Optional.of(file));
+		doThrow(new java.io.IOException("Test IOException"))
+				.doReturn(null)
+				.when(fileReaderStrategy).readChunks(any());
+
+		//When
+		assertThatThrownBy(() -> temperatureDataScheduler.refreshIfChanged()).isInstanceOf(FileProcessingException.class);
+		temperatureDataScheduler.refreshIfChanged();
+		temperatureDataScheduler.refreshIfChanged();
+
+		//Then
+		verify(fileReaderStrategy, times(2)).readChunks(any());
+		verify(temperatureService).replaceCityTemperatureData(any(TemperatureAggregates.class));
+	}
+
+	@Test
+	void testInitializeData_withStoredSnapshot_shouldServeSnapshotAndCatchUpInBackground() throws Exception {
+		//Given
+		ReflectionTestUtils.setField(temperatureDataScheduler, "incremental", true);
+		final var storedAggregates = new TemperatureAggregates();
+		storedAggregates.add("CityA", 2022, 1, 1, 1550);
+		final var storedPushed = new TemperatureAggregates();
+		final var storedCheckpoint = new ReadCheckpoint(35, 35, 1L, true);
+		when(snapshotStore.load()).thenReturn(Optional.of(
+				new TemperatureSnapshotStore.StoredSnapshot(storedAggregates, storedPushed, storedCheckpoint)));
+		when(fileReaderStrategy.readAppendedChunks(eq(storedCheckpoint), any()))
+				.thenReturn(storedCheckpoint);
+
+		//When
+		temperatureDataScheduler.initializeData();
+
+		//Then
+		verify(temperatureService).restoreCityTemperatureData(storedAggregates, storedPushed);
+		verify(fileReaderStrategy, timeout(5000)).readAppendedChunks(eq(storedCheckpoint), any());
+		verify(fileReaderStrategy, never()).readChunks(any());
+	}
+
+	@Test
+	void testInitializeData_afterRefresh_shouldNotOverwriteNewerDataWithStoredSnapshot() {
+		//Given
+		final var storedCheckpoint = new ReadCheckpoint(35, 35, 1L, true);
+		when(snapshotStore.load()).thenReturn(Optional.of(new TemperatureSnapshotStore.StoredSnapshot(
+				new TemperatureAggregates(), new TemperatureAggregates(), storedCheckpoint)));
+		temperatureDataScheduler.refreshData();
+
+		//When
+		temperatureDataScheduler.initializeData();
+
+		//Then
+		verify(temperatureService, never()).restoreCityTemperatureData(any(), any());
+		assertThat(ReflectionTestUtils.getField(temperatureDataScheduler, "checkpoint")).isNull();
+	}
+
+	@Test
+	void testRefreshData_shouldSaveSnapshotWithCheckpoint() throws Exception {
+		//Given
+		final var checkpoint = new ReadCheckpoint(35, 35, 1L, false);
+		final var snapshot = new TemperatureSnapshot(1, new TemperatureAggregates());
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5"));
+			return checkpoint;
+		}).when(fileReaderStrategy).readChunks(any());
+		when(temperatureService.currentSnapshot()).thenReturn(snapshot);
+
+		//When
+		temperatureDataScheduler.refreshData();
+
+		//Then
+		verify(snapshotStore, timeout(5000)).save(snapshot.aggregates(), snapshot.pushed(), checkpoint);
+	}
+
+	@Test
+	void testRefreshData_withAppendedData_shouldSaveSnapshotAtMostOncePerIntervalAndOnStop() throws Exception {
+		//Given
+		ReflectionTestUtils.setField(temperatureDataScheduler, "incremental", true);
+		ReflectionTestUtils.setField(temperatureDataScheduler, "snapshotMinIntervalMs", 3_600_000L);
+		final var checkpoint = new ReadCheckpoint(35, 35, 1L, true);
+		final var appendedCheckpoint = new ReadCheckpoint(70, 35, 1L, true);
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5\n"));
+			return checkpoint;
+		}).when(fileReaderStrategy).readChunks(any());
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(1);
+			consumer.accept(chunkOf("CityA;2022-01-02 00:00:00.000;16.5\n"));
+			return appendedCheckpoint;
+		}).when(fileReaderStrategy).readAppendedChunks(eq(checkpoint), any());
+		temperatureDataScheduler.refreshData();
+		verify(snapshotStore, timeout(5000)).save(any(), any(), eq(checkpoint));
+
+		//When
+		temperatureDataScheduler.refreshData();
+		Thread.sleep(100);
+		verify(snapshotStore, never()).save(any(), any(), eq(appendedCheckpoint));
+		temperatureDataScheduler.stop();
+
+		//Then
+		verify(snapshotStore).save(any(), any(), eq(appendedCheckpoint));
+	}
+
+	@Test
+	void testRefreshData_withFullReload_shouldKeepPushedReadings() throws Exception {
+		//Given
+		final var service = new TemperatureServiceImpl(mock(TemperatureResultCache.class));
+		final var scheduler = new TemperatureDataScheduler(fileReaderStrategy, executorService, service, snapshotStore,
+				ingestionProgress, temperatureMetrics, cityPartitioner);
+		final var pushed = new TemperatureAggregates();
+		pushed.add("PushedCity", 2023, 5, 1, 1850);
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			consumer.accept(chunkOf("CityA;2022-01-01 00:00:00.000;15.5\n"));
+			return null;
+		}).when(fileReaderStrategy).readChunks(any());
+		scheduler.refreshData();
+		service.pushCityTemperatureData(pushed);
+
+		//When
+		scheduler.refreshData();
+		scheduler.refreshData();
+
+		//Then
+		verify(fileReaderStrategy, times(3)).readChunks(any());
+		assertThat(service.currentSnapshot().aggregates().cities()).containsExactlyInAnyOrder("CityA", "PushedCity");
+		assertThat(service.currentSnapshot().aggregates().get("PushedCity").yearlyAverages())
+				.containsExactly(new TemperatureResult(2023, 18.5));
+		assertThat(service.currentSnapshot().aggregates().get("CityA").yearlyAverages())
+				.containsExactly(new TemperatureResult(2022, 15.5));
+	}
+
+	@Test
+	void testRefreshIfChanged_withUnchangedFileAndNewPushes_shouldSaveThem(@TempDir Path tempDir) throws Exception {
+		//Given
+		final Path file = Files.writeString(tempDir.resolve("temperatures.csv"), "CityA;2022-01-01 00:00:00.000;15.5\n");
+		when(fileReaderStrategy.sourcePath()).thenReturn(Optional.of(file));
+		final var pushed = new TemperatureAggregates();
+		temperatureDataScheduler.refreshIfChanged();
+		verify(snapshotStore, timeout(5000)).save(any(), eq(TemperatureSnapshot.EMPTY.pushed()), any());
+		when(temperatureService.currentSnapshot()).thenReturn(new TemperatureSnapshot(2, pushed, pushed));
+
+		//When
+		temperatureDataScheduler.refreshIfChanged();
+
+		//Then
+		verify(fileReaderStrategy, times(1)).readChunks(any());
+		verify(snapshotStore, timeout(5000)).save(pushed, pushed, null);
+	}
+
+	@Test
+	void testRefreshData_withMaxInFlightChunks_shouldParseBeforeSubmittingMore() throws Exception {
+		//Given
+		ReflectionTestUtils.setField(temperatureDataScheduler, "maxInFlightChunks", 2);
+		final AtomicInteger pending = new AtomicInteger();
+		final AtomicInteger maxPending = new AtomicInteger();
+		when(executorService.submit(any(Callable.class))).thenAnswer(invocation -> {
+			final Callable<?> task = invocation.getArgument(0);
+			maxPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+			return new CompletableFuture<Object>() {
+
+				@Override
+				public Object get() throws ExecutionException {
+					pending.decrementAndGet();
+					try {
+						return task.call();
+					} catch (Exception e) {
+						throw new ExecutionException(e);
+					}
+				}
+			};
+		});
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			for (int day = 1; day <= 5; day++) {
+				consumer.accept(chunkOf("CityA;2022-01-0" + day + " 00:00:00.000;1" + day + ".0"));
+			}
+			return null;
+		}).when(fileReaderStrategy).readChunks(any());
+
+		//When
+		temperatureDataScheduler.refreshData();
+
+		//Then
+		verify(executorService, times(5)).submit(any(Callable.class));
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
+		assertThat(maxPending.get()).isEqualTo(2);
+		assertThat(pending.get()).isZero();
+		assertThat(aggregatesCaptor.getValue().get("CityA").yearlyAverages())
+				.containsExactly(new TemperatureResult(2022, 13.0));
+	}
+
+	@Test
+	void testRefreshData_withConcurrentChunks_shouldFoldEveryChunk() throws Exception {
+		//Given
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		when(executorService.submit(any(Callable.class)))
+				.thenAnswer(invocation -> pool.submit((Callable<?>) invocation.getArgument(0)));
+		doAnswer(invocation -> {
+			java.util.function.Consumer<ByteBuffer> consumer = invocation.getArgument(0);
+			for (int i = 0; i < 1000; i++) {
+				consumer.accept(chunkOf("City" + i % 10 + ";2022-01-01 00:00:00.000;" + i % 10 + ".0\n"));
+			}
+			return null;
+		}).when(fileReaderStrategy).readChunks(any());
+
+		//When
+		try {
+			temperatureDataScheduler.refreshData();
+		} finally {
+			pool.shutdownNow();
+		}
+
+		//Then
+		verify(temperatureService).replaceCityTemperatureData(aggregatesCaptor.capture());
+		assertThat(aggregatesCaptor.getValue().size()).isEqualTo(10);
+		for (int city = 0; city < 10; city++) {
+			assertThat(aggregatesCaptor.getValue().get("City" + city).yearlyStatistics())
+					.containsExactly(new TemperatureStatistics(2022, null, 100, city, city, city));
+		}
+	}
+
+	private static ByteBuffer chunkOf(String content) {
+		return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
 	}
 }
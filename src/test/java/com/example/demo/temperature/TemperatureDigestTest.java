@@ -0,0 +1,129 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TemperatureDigestTest {
+
+	private static final double[] QUANTILES = {0.01, 0.05, 0.5, 0.95, 0.99, 0.999};
+
+	@Test
+	void testQuantile_withFewReadings_shouldBeExact() {
+		// Given
+		final var digest = new TemperatureDigest();
+		for (int temperature : new int[] {300, 100, 500, 200, 400}) {
+			digest.add(temperature);
+		}
+
+		// When
+		final double median = digest.quantile(0.5);
+
+		// Then
+		assertThat(median).isEqualTo(300.0);
+		assertThat(digest.quantile(0)).isEqualTo(100.0);
+		assertThat(digest.quantile(1)).isEqualTo(500.0);
+		assertThat(new TemperatureDigest().quantile(0.5)).isNaN();
+	}
+
+	@Test
+	void testQuantile_shouldStayCloseToExactValuesWithBoundedMemory() {
+		// Given
+		final int[] readings = normalReadings(1_000_000, 1);
+		final var digest = new TemperatureDigest();
+
+		// When
+		Arrays.stream(readings).forEach(digest::add);
+
+		// Then
+		assertCloseToExact(digest, readings);
+		assertThat(digest.count()).isEqualTo(readings.length);
+		assertThat(digest.centroidCount()).isLessThanOrEqualTo(TemperatureDigest.COMPRESSION);
+		assertThat(digest.estimatedSizeBytes()).isLessThan(4096 + TemperatureDigest.BUFFER_SIZE * Integer.BYTES);
+		digest.compact();
+		assertCloseToExact(digest, readings);
+		assertThat(digest.estimatedSizeBytes()).isLessThan(4096);
+	}
+
+	@Test
+	void testMerge_ofChunkDigests_shouldMatchSingleDigest() {
+		// Given
+		final int[] readings = normalReadings(400_000, 2);
+		final var merged = new TemperatureDigest();
+
+		// When
+		for (int chunk = 0; chunk < 16; chunk++) {
+			final var partial = new TemperatureDigest();
+			Arrays.stream(readings, chunk * 25_000, (chunk + 1) * 25_000).forEach(partial::add);
+			merged.merge(partial);
+		}
+
+		// Then
+		assertCloseToExact(merged, readings);
+		assertThat(merged.count()).isEqualTo(readings.length);
+		assertThat(merged.min()).isEqualTo(Arrays.stream(readings).min().getAsInt());
+		assertThat(merged.max()).isEqualTo(Arrays.stream(readings).max().getAsInt());
+	}
+
+	@Test
+	void testMerge_shouldReleaseTheBufferOfTheTarget() {
+		// Given
+		final int[] readings = normalReadings(TemperatureDigest.BUFFER_SIZE, 3);
+		final var partial = new TemperatureDigest();
+		Arrays.stream(readings).forEach(partial::add);
+		final var other = new TemperatureDigest();
+		other.add(100);
+		final var compacted = partial.copy();
+		compacted.compact();
+
+		// When
+		partial.merge(other);
+
+		// Then
+		assertThat(partial.estimatedSizeBytes()).isLessThan(compacted.estimatedSizeBytes() + TemperatureDigest.BUFFER_SIZE);
+		assertThat(partial.count()).isEqualTo(readings.length + 1);
+		partial.add(200);
+		assertThat(partial.count()).isEqualTo(readings.length + 2);
+	}
+
+	@Test
+	void testCopy_shouldNotShareBufferedReadings() {
+		// Given
+		final var digest = new TemperatureDigest();
+		digest.add(100);
+		final var copy = digest.copy();
+
+		// When
+		copy.add(900);
+
+		// Then
+		assertThat(digest.count()).isEqualTo(1);
+		assertThat(digest.quantile(1)).isEqualTo(100.0);
+		assertThat(copy.quantile(1)).isEqualTo(900.0);
+	}
+
+	// Mean 10 degrees, standard deviation 8 degrees, in hundredths
+	private static int[] normalReadings(int count, long seed) {
+		final Random random = new Random(seed);
+		final int[] readings = new int[count];
+		for (int i = 0; i < count; i++) {
+			readings[i] = (int) Math.round(1000 + random.nextGaussian() * 800);
+		}
+		return readings;
+	}
+
+	// Within a tenth of a percentile of the exact value
+	private static void assertCloseToExact(TemperatureDigest digest, int[] readings) {
+		final int[] sorted = readings.clone();
+		Arrays.sort(sorted);
+		for (double quantile : QUANTILES) {
+			final int lower = sorted[(int) Math.max(0, (quantile - 0.001) * sorted.length)];
+			final int upper = sorted[(int) Math.min(sorted.length - 1, (quantile + 0.001) * sorted.length)];
+			assertThat(digest.quantile(quantile)).as("quantile %s", quantile).isBetween(lower - 1.0, upper + 1.0);
+		}
+		assertThat(digest.quantile(0.5)).isCloseTo(sorted[sorted.length / 2], within(5.0));
+	}
+}
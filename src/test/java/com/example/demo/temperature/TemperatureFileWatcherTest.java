@@ -0,0 +1,99 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.example.demo.utils.filereader.FileReaderStrategy;
+
+@ExtendWith(MockitoExtension.class)
+class TemperatureFileWatcherTest {
+
+	@TempDir
+	private Path tempDir;
+
+	@InjectMocks
+	private TemperatureFileWatcher temperatureFileWatcher;
+
+	@Mock
+	private FileReaderStrategy fileReaderStrategy;
+
+	@Mock
+	private TemperatureDataScheduler temperatureDataScheduler;
+
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		file = Files.writeString(tempDir.resolve("temperatures.csv"), "CityA;2022-01-01 00:00:00.000;15.5\n");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		temperatureFileWatcher.stop();
+	}
+
+	@Test
+	void testFileChange_shouldTriggerRefresh() throws Exception {
+		// Given
+		when(fileReaderStrategy.sourcePath()).thenReturn(Optional.of(file));
+		temperatureFileWatcher.start();
+
+		// When
+		Files.writeString(file, "CityA;2022-01-02 00:00:00.000;16.5\n", StandardOpenOption.APPEND);
+
+		// Then
+		verify(temperatureDataScheduler, timeout(5000)).refreshIfChanged();
+	}
+
+	@Test
+	void testStart_withMissingDirectory_shouldFallBackToScheduledRefresh() throws Exception {
+		// Given
+		when(fileReaderStrategy.sourcePath()).thenReturn(Optional.of(tempDir.resolve("missing").resolve("temperatures.csv")));
+
+		// When & Then
+		assertThatCode(temperatureFileWatcher::start).doesNotThrowAnyException();
+	}
+
+	@Test
+	void testRequestRefresh_whileRefreshIsRunning_shouldQueueSingleRefresh() throws Exception {
+		// Given
+		final var refreshStarted = new CountDownLatch(1);
+		final var releaseRefresh = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			refreshStarted.countDown();
+			releaseRefresh.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(temperatureDataScheduler).refreshIfChanged();
+
+		// When
+		temperatureFileWatcher.requestRefresh();
+		refreshStarted.await(5, TimeUnit.SECONDS);
+		temperatureFileWatcher.requestRefresh();
+		temperatureFileWatcher.requestRefresh();
+		temperatureFileWatcher.requestRefresh();
+		releaseRefresh.countDown();
+
+		// Then
+		verify(temperatureDataScheduler, timeout(5000).times(2)).refreshIfChanged();
+		Thread.sleep(200);
+		verify(temperatureDataScheduler, times(2)).refreshIfChanged();
+	}
+}
@@ -0,0 +1,148 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TemperatureIngestionBufferTest {
+
+	@Mock
+	private TemperatureService temperatureService;
+
+	private TemperatureIngestionBuffer ingestionBuffer;
+
+	private final CountDownLatch publishing = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@BeforeEach
+	void setUp() {
+		ingestionBuffer = new TemperatureIngestionBuffer(temperatureService, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(ingestionBuffer, "capacity", 4);
+		ReflectionTestUtils.setField(ingestionBuffer, "maxBatchSize", 4);
+		ingestionBuffer.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		ingestionBuffer.stop();
+	}
+
+	@Test
+	void testOffer_shouldPublishBufferedReadings() {
+		// When
+		final boolean offered = ingestionBuffer.offer(lines("""
+				CityA;2022-01-01 00:00:00.000;15.5
+				CityA;2022-01-02 00:00:00.000;16.5
+				CityB;2021-12-31 00:00:00.000;-1.0
+				"""));
+
+		// Then
+		final ArgumentCaptor<TemperatureAggregates> captor = ArgumentCaptor.forClass(TemperatureAggregates.class);
+		verify(temperatureService, timeout(5000)).pushCityTemperatureData(captor.capture());
+		assertThat(offered).isTrue();
+		assertThat(captor.getValue().get("CityA").yearlyAverages()).containsExactly(new TemperatureResult(2022, 16.0));
+		assertThat(captor.getValue().get("CityB").yearlyAverages()).containsExactly(new TemperatureResult(2021, -1.0));
+	}
+
+	@Test
+	void testOffer_shouldRefuseBatchWhenBufferIsFull() throws Exception {
+		// Given
+		blockFirstPublish();
+		ingestionBuffer.offer(lines("CityA;2022-01-01 00:00:00.000;15.5\nCityA;2022-01-02 00:00:00.000;16.5\n"));
+		assertThat(publishing.await(5, TimeUnit.SECONDS)).isTrue();
+		ingestionBuffer.offer(lines("CityA;2022-01-03 00:00:00.000;17.5\n"));
+
+		// When
+		final boolean tooLarge = ingestionBuffer.offer(lines("CityB;2022-01-01 00:00:00.000;1.0\nCityB;2022-01-02 00:00:00.000;2.0\n"));
+		final boolean fits = ingestionBuffer.offer(lines("CityB;2022-01-01 00:00:00.000;1.0\n"));
+
+		// Then
+		assertThat(tooLarge).isFalse();
+		assertThat(fits).isTrue();
+		assertThat(ingestionBuffer.buffered()).isEqualTo(4);
+	}
+
+	@Test
+	void testOffer_shouldCombineBatchesBufferedWhilePublishing() throws Exception {
+		// Given
+		blockFirstPublish();
+		ingestionBuffer.offer(lines("CityA;2022-01-01 00:00:00.000;15.5\n"));
+		assertThat(publishing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// When
+		ingestionBuffer.offer(lines("CityA;2022-01-02 00:00:00.000;16.5\n"));
+		ingestionBuffer.offer(lines("CityB;2022-01-01 00:00:00.000;1.0\n"));
+		ingestionBuffer.offer(lines("CityC;2022-01-01 00:00:00.000;2.0\n"));
+		release.countDown();
+
+		// Then
+		final ArgumentCaptor<TemperatureAggregates> captor = ArgumentCaptor.forClass(TemperatureAggregates.class);
+		verify(temperatureService, timeout(5000).times(2)).pushCityTemperatureData(captor.capture());
+		assertThat(captor.getAllValues().get(1).cities()).containsExactly("CityA", "CityB", "CityC");
+		verify(temperatureService, times(2)).pushCityTemperatureData(any(TemperatureAggregates.class));
+	}
+
+	@Test
+	void testOffer_withPublishInterval_shouldPublishSmallPushesTogether() {
+		// Given
+		ReflectionTestUtils.setField(ingestionBuffer, "publishIntervalMs", 300L);
+
+		// When
+		ingestionBuffer.offer(lines("CityA;2022-01-01 00:00:00.000;15.5\n"));
+		ingestionBuffer.offer(lines("CityB;2022-01-01 00:00:00.000;1.0\n"));
+		ingestionBuffer.offer(lines("CityC;2022-01-01 00:00:00.000;2.0\n"));
+
+		// Then
+		final ArgumentCaptor<TemperatureAggregates> captor = ArgumentCaptor.forClass(TemperatureAggregates.class);
+		verify(temperatureService, timeout(5000)).pushCityTemperatureData(captor.capture());
+		assertThat(captor.getValue().cities()).containsExactly("CityA", "CityB", "CityC");
+	}
+
+	@Test
+	void testOffer_withFullBatch_shouldPublishBeforePublishIntervalEnds() {
+		// Given
+		ReflectionTestUtils.setField(ingestionBuffer, "publishIntervalMs", 60_000L);
+
+		// When
+		ingestionBuffer.offer(lines("""
+				CityA;2022-01-01 00:00:00.000;15.5
+				CityA;2022-01-02 00:00:00.000;16.5
+				CityB;2022-01-01 00:00:00.000;1.0
+				CityC;2022-01-01 00:00:00.000;2.0
+				"""));
+
+		// Then
+		verify(temperatureService, timeout(5000)).pushCityTemperatureData(any(TemperatureAggregates.class));
+	}
+
+	private void blockFirstPublish() {
+		doAnswer(invocation -> {
+			publishing.countDown();
+			release.await();
+			return null;
+		}).doNothing().when(temperatureService).pushCityTemperatureData(any(TemperatureAggregates.class));
+	}
+
+	private static ReadingBatch lines(String lines) {
+		return ReadingBatch.ofLines(lines.getBytes(StandardCharsets.UTF_8), new CityPartitioner());
+	}
+}
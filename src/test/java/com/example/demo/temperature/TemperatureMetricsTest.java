@@ -0,0 +1,74 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.example.demo.utils.parser.ParsedChunk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TemperatureMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final TemperatureService temperatureService = mock(TemperatureService.class);
+
+	private TemperatureMetrics temperatureMetrics;
+
+	@BeforeEach
+	void setUp() {
+		temperatureMetrics = new TemperatureMetrics(registry, temperatureService);
+	}
+
+	@Test
+	void testRefreshFinished_shouldRecordRowsBytesAndDuration() {
+		// Given
+		temperatureMetrics.refreshStarted();
+		temperatureMetrics.chunkParsed(1000, new ParsedChunk(20, 2));
+		temperatureMetrics.chunkParsed(500, new ParsedChunk(10, 0));
+
+		// When
+		temperatureMetrics.refreshFinished(TemperatureMetrics.INCREMENTAL);
+
+		// Then
+		assertThat(registry.get("temperature.ingestion.bytes").counter().count()).isEqualTo(1500);
+		assertThat(registry.get("temperature.ingestion.rows").counter().count()).isEqualTo(30);
+		assertThat(registry.get("temperature.ingestion.rows.rejected").counter().count()).isEqualTo(2);
+		assertThat(registry.get("temperature.refresh").tag("mode", TemperatureMetrics.INCREMENTAL).timer().count())
+				.isEqualTo(1);
+		assertThat(registry.get("temperature.refresh.throughput").gauge().value()).isPositive();
+		assertThat(registry.get("temperature.refresh.last").gauge().value()).isPositive();
+	}
+
+	@Test
+	void testRefreshFinished_withFileLargerThanTenGigabytes_shouldReportPositiveThroughput() {
+		// Given
+		temperatureMetrics.refreshStarted();
+		temperatureMetrics.chunkParsed(20L << 30, new ParsedChunk(1, 0));
+
+		// When
+		temperatureMetrics.refreshFinished(TemperatureMetrics.FULL);
+
+		// Then
+		assertThat(registry.get("temperature.refresh.throughput").gauge().value()).isGreaterThan(20L << 30);
+	}
+
+	@Test
+	void testStoreGauges_shouldReflectCurrentSnapshot() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2021, 1, 1, 1550);
+		aggregates.add("CityB", 2022, 1, 1, 1600);
+		when(temperatureService.currentSnapshot()).thenReturn(TemperatureSnapshot.EMPTY.next(aggregates));
+
+		// When
+		final double cities = registry.get("temperature.store.cities").gauge().value();
+		final double sizeBytes = registry.get("temperature.store.size").gauge().value();
+
+		// Then
+		assertThat(cities).isEqualTo(2);
+		assertThat(sizeBytes).isEqualTo(aggregates.estimatedSizeBytes());
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TemperatureResultCacheTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private TemperatureResultCache resultCache;
+
+	@BeforeEach
+	void setUp() {
+		resultCache = new TemperatureResultCache(registry, new ObjectMapper());
+		ReflectionTestUtils.setField(resultCache, "spec", "recordStats");
+		ReflectionTestUtils.setField(resultCache, "maxWeight", 100L);
+		ReflectionTestUtils.setField(resultCache, "warmUpSize", 1);
+		resultCache.init();
+	}
+
+	@Test
+	void testGet_shouldComputeOncePerSnapshotVersion() {
+		// Given
+		final var snapshot = snapshotOf(1500);
+
+		// When
+		final var first = resultCache.get(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityA");
+		final var second = resultCache.get(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityA");
+
+		// Then
+		assertThat(second).isSameAs(first).containsExactly(new TemperatureResult(2022, 15.0));
+		assertThat(hits()).isEqualTo(1);
+		assertThat(misses()).isEqualTo(1);
+	}
+
+	@Test
+	void testInit_withSizeBoundInSpec_shouldFail() {
+		// Given
+		final var cache = new TemperatureResultCache(registry, new ObjectMapper());
+		ReflectionTestUtils.setField(cache, "spec", "maximumSize=100");
+		ReflectionTestUtils.setField(cache, "maxWeight", 100L);
+
+		// When & Then
+		assertThatThrownBy(cache::init)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("temperature.cache.max-weight");
+	}
+
+	@Test
+	void testWarmUp_shouldRecomputeHottestKeysAgainstNewSnapshot() {
+		// Given
+		final var snapshot = snapshotOf(1500);
+		for (int i = 0; i < 3; i++) {
+			resultCache.get(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityA");
+		}
+		resultCache.get(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityB");
+		final var next = snapshot.next(snapshotOf(2500).aggregates());
+
+		// When
+		resultCache.warmUp(next);
+		final double hitsBefore = hits();
+		final var results = resultCache.get(next, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityA");
+
+		// Then
+		assertThat(results).containsExactly(new TemperatureResult(2022, 25.0));
+		assertThat(hits()).isEqualTo(hitsBefore + 1);
+	}
+
+	@Test
+	void testGetJson_shouldRenderResultsOncePerSnapshotVersion() {
+		// Given
+		final var snapshot = snapshotOf(1500);
+
+		// When
+		final byte[] first = resultCache.getJson(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityA");
+		final byte[] second = resultCache.getJson(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityA");
+		final byte[] unknown = resultCache.getJson(snapshot, TemperatureResultCache.ResultType.YEARLY_AVERAGES, "CityB");
+
+		// Then
+		assertThat(second).isSameAs(first);
+		assertThat(new String(first, StandardCharsets.UTF_8)).isEqualTo("[{\"year\":2022,\"averageTemperature\":15.0}]");
+		assertThat(new String(unknown, StandardCharsets.UTF_8)).isEqualTo("[]");
+	}
+
+	private static TemperatureSnapshot snapshotOf(int temperatureHundredths) {
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, temperatureHundredths);
+		return TemperatureSnapshot.EMPTY.next(aggregates);
+	}
+
+	private double hits() {
+		return registry.get("cache.gets").tag("result", "hit").functionCounter().count();
+	}
+
+	private double misses() {
+		return registry.get("cache.gets").tag("result", "miss").functionCounter().count();
+	}
+}
@@ -1,20 +1,43 @@
 package com.example.demo.temperature;
 
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.mockito.Mockito.mock;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
-@ExtendWith(MockitoExtension.class)
 class TemperatureServiceTest {
 
-	@InjectMocks
 	private TemperatureServiceImpl temperatureService;
 
+	@BeforeEach
+	void setUp() {
+		final var resultCache = new TemperatureResultCache(new SimpleMeterRegistry(), new ObjectMapper());
+		ReflectionTestUtils.setField(resultCache, "spec", "recordStats");
+		ReflectionTestUtils.setField(resultCache, "maxWeight", 1000L);
+		ReflectionTestUtils.setField(resultCache, "warmUpSize", 10);
+		resultCache.init();
+		temperatureService = new TemperatureServiceImpl(resultCache);
+	}
+
 	@Test
 	void testGetYearlyAverageTemperature() {
 		// Given
@@ -65,4 +88,261 @@ class TemperatureServiceTest {
 		assertThat(temperatureService.getYearlyAverageTemperature("CityA").get(0)
 				.averageTemperature()).isEqualTo(16.5);
 	}
+
+	@Test
+	void testUpdateCityTemperatureData_withAggregates_shouldMergeIntoExistingData() {
+		// Given
+		temperatureService.updateCityTemperatureData(List.of(
+				Temperature.builder().city("CityA").timestamp(LocalDateTime.of(2022, 1, 1, 0, 0))
+						.temperature(15.5).build()
+		));
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, 1750);
+		aggregates.add("CityA", 2019, 1, 1, -125);
+
+		// When
+		temperatureService.updateCityTemperatureData(aggregates);
+		final var results = temperatureService.getYearlyAverageTemperature("CityA");
+
+		// Then
+		assertThat(results).containsExactly(
+				new TemperatureResult(2019, -1.3),
+				new TemperatureResult(2022, 16.5));
+	}
+
+	@Test
+	void testReplaceCityTemperatureData_shouldKeepPushedReadings() {
+		// Given
+		final var pushed = new TemperatureAggregates();
+		pushed.add("CityA", 2022, 1, 2, 2000);
+		pushed.add("PushedCity", 2023, 5, 1, 1850);
+		final var reloaded = new TemperatureAggregates();
+		reloaded.add("CityA", 2022, 1, 1, 1000);
+		temperatureService.pushCityTemperatureData(pushed);
+
+		// When
+		temperatureService.replaceCityTemperatureData(reloaded);
+
+		// Then
+		assertThat(temperatureService.getYearlyAverageTemperature("CityA"))
+				.containsExactly(new TemperatureResult(2022, 15.0));
+		assertThat(temperatureService.getYearlyAverageTemperature("PushedCity"))
+				.containsExactly(new TemperatureResult(2023, 18.5));
+		assertThat(temperatureService.currentSnapshot().pushed().cities()).containsExactly("CityA", "PushedCity");
+	}
+
+	@Test
+	void testReplaceCityTemperatureData_shouldNeverServeCachedResultsOfOlderData() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, 1550);
+		aggregates.add("CityB", 2022, 1, 1, 1000);
+		final var reloadedAggregates = new TemperatureAggregates();
+		reloadedAggregates.add("CityA", 2022, 1, 1, 2000);
+		temperatureService.replaceCityTemperatureData(aggregates);
+		temperatureService.getYearlyAverageTemperature("CityA");
+		temperatureService.getYearlyAverageTemperature("CityB");
+
+		// When
+		temperatureService.replaceCityTemperatureData(reloadedAggregates);
+
+		// Then
+		assertThat(temperatureService.currentSnapshot().version()).isEqualTo(2);
+		assertThat(temperatureService.getYearlyAverageTemperature("CityA"))
+				.containsExactly(new TemperatureResult(2022, 20.0));
+		assertThat(temperatureService.getYearlyAverageTemperature("CityB")).isEmpty();
+	}
+
+	@Test
+	void testGetYearlyAverageTemperatures_shouldResolveAllCitiesInRequestOrder() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, 1550);
+		aggregates.add("CityB", 2021, 1, 1, 1000);
+		temperatureService.replaceCityTemperatureData(aggregates);
+
+		// When
+		final var results = temperatureService.getYearlyAverageTemperatures(List.of("CityB", "Unknown", "CityA"));
+
+		// Then
+		assertThat(results).containsExactly(
+				new CityTemperatures("CityB", List.of(new TemperatureResult(2021, 10.0))),
+				new CityTemperatures("Unknown", List.of()),
+				new CityTemperatures("CityA", List.of(new TemperatureResult(2022, 15.5))));
+	}
+
+	@Test
+	void testForEachYearlyAverageTemperature_shouldVisitAllCitiesAlphabetically() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityB", 2021, 1, 1, 1000);
+		aggregates.add("CityA", 2022, 1, 1, 1550);
+		temperatureService.replaceCityTemperatureData(aggregates);
+		final List<CityTemperatures> visited = new ArrayList<>();
+
+		// When
+		temperatureService.forEachYearlyAverageTemperature(visited::add);
+
+		// Then
+		assertThat(visited).extracting(CityTemperatures::city).containsExactly("CityA", "CityB");
+	}
+
+	@Test
+	void testGetTemperatureStatistics_shouldReturnYearlyAndMonthlyFigures() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, -250);
+		aggregates.add("CityA", 2022, 1, 1, 150);
+		aggregates.add("CityA", 2022, 7, 1, 3075);
+		aggregates.add("CityA", 2023, 3, 1, 1000);
+		temperatureService.replaceCityTemperatureData(aggregates);
+
+		// When
+		final var yearly = temperatureService.getTemperatureStatistics("CityA", Granularity.YEAR);
+		final var monthly = temperatureService.getTemperatureStatistics("CityA", Granularity.MONTH);
+
+		// Then
+		assertThat(yearly).containsExactly(
+				new TemperatureStatistics(2022, null, 3, 9.9, -2.5, 30.75),
+				new TemperatureStatistics(2023, null, 1, 10.0, 10.0, 10.0));
+		assertThat(monthly).containsExactly(
+				new TemperatureStatistics(2022, 1, 2, -0.5, -2.5, 1.5),
+				new TemperatureStatistics(2022, 7, 1, 30.8, 30.75, 30.75),
+				new TemperatureStatistics(2023, 3, 1, 10.0, 10.0, 10.0));
+	}
+
+	@Test
+	void testGetTemperaturePercentiles_shouldReadReplacedData() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		for (int i = 1; i <= 100; i++) {
+			aggregates.add("CityA", 2022, 1 + i % 12, 1, i * 100);
+		}
+		temperatureService.replaceCityTemperatureData(aggregates);
+
+		// When
+		final var percentiles = temperatureService.getTemperaturePercentiles("CityA", List.of(50.0, 99.0));
+
+		// Then
+		assertThat(percentiles).containsExactly(new TemperaturePercentiles(2022, 100, Map.of("p50", 50.5, "p99", 99.5)));
+		assertThat(temperatureService.getTemperaturePercentiles("CityB", List.of(50.0))).isEmpty();
+	}
+
+	@Test
+	void testGetTemperatureStatistics_emptyCity() {
+		// When & Then
+		assertThat(temperatureService.getTemperatureStatistics("CityB", Granularity.MONTH)).isEmpty();
+	}
+
+	@Test
+	void testUpdateCityTemperatureData_withConcurrentWriters_shouldKeepExactSumsAndCounts() throws Exception {
+		// Given
+		final int writers = 8;
+		final int updatesPerWriter = 200;
+		final int cities = 20;
+		final ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+		final AtomicInteger tornSnapshots = new AtomicInteger();
+
+		// When
+		final List<Future<?>> writes = new ArrayList<>();
+		for (int writer = 0; writer < writers; writer++) {
+			final int temperature = writer * 100 + 1;
+			writes.add(pool.submit(() -> {
+				start.await();
+				for (int update = 0; update < updatesPerWriter; update++) {
+					final var aggregates = new TemperatureAggregates();
+					for (int city = 0; city < cities; city++) {
+						aggregates.add("City" + city, 2022, 1 + update % 12, 1, temperature);
+					}
+					temperatureService.updateCityTemperatureData(aggregates);
+				}
+				return null;
+			}));
+		}
+		// Every update adds one reading to every city, so a consistent snapshot has equal counts for all cities
+		final Future<?> reads = pool.submit(() -> {
+			start.await();
+			while (writing.get()) {
+				final var aggregates = temperatureService.currentSnapshot().aggregates();
+				final long[] counts = aggregates.cities().stream().mapToLong(city -> count(aggregates.get(city))).distinct().toArray();
+				if (counts.length > 1) {
+					tornSnapshots.incrementAndGet();
+				}
+			}
+			return null;
+		});
+		start.countDown();
+		for (Future<?> write : writes) {
+			write.get(30, TimeUnit.SECONDS);
+		}
+		writing.set(false);
+		reads.get(30, TimeUnit.SECONDS);
+		pool.shutdownNow();
+
+		// Then
+		final long expectedCount = (long) writers * updatesPerWriter;
+		long expectedSum = 0;
+		for (int writer = 0; writer < writers; writer++) {
+			expectedSum += (long) (writer * 100 + 1) * updatesPerWriter;
+		}
+		final var aggregates = temperatureService.currentSnapshot().aggregates();
+		assertThat(tornSnapshots.get()).isZero();
+		assertThat(aggregates.size()).isEqualTo(cities);
+		for (int city = 0; city < cities; city++) {
+			final long[] sumAndCount = new long[2];
+			aggregates.get("City" + city).forEachMonth((year, month, sum, count, min, max) -> {
+				sumAndCount[0] += sum;
+				sumAndCount[1] += count;
+			});
+			assertThat(sumAndCount).containsExactly(expectedSum, expectedCount);
+		}
+	}
+
+	@Test
+	void testUpdateCityTemperatureData_whenCombinedMergeFails_shouldThrowToEveryWriter() throws Exception {
+		// Given
+		final var existing = new TemperatureAggregates();
+		existing.add("CityA", 2022, 1, 1, 1000);
+		temperatureService.replaceCityTemperatureData(existing);
+		final long version = temperatureService.currentSnapshot().version();
+		final var valid = new TemperatureAggregates();
+		valid.add("CityA", 2022, 1, 2, 2000);
+		// Has no dictionary, so merging it fails
+		final var broken = mock(TemperatureAggregates.class);
+		final var publishLock = (ReentrantLock) ReflectionTestUtils.getField(temperatureService, "publishLock");
+		final var pendingUpdates = (Queue<?>) ReflectionTestUtils.getField(temperatureService, "pendingUpdates");
+		final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+		// When
+		final List<Future<?>> writes = new ArrayList<>();
+		publishLock.lock();
+		try {
+			writes.add(pool.submit(() -> temperatureService.updateCityTemperatureData(valid)));
+			writes.add(pool.submit(() -> temperatureService.updateCityTemperatureData(broken)));
+			final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (pendingUpdates.size() < 2 && System.nanoTime() < deadline) {
+				Thread.onSpinWait();
+			}
+		} finally {
+			publishLock.unlock();
+		}
+		final Throwable first = catchThrowable(() -> writes.get(0).get(10, TimeUnit.SECONDS));
+		final Throwable second = catchThrowable(() -> writes.get(1).get(10, TimeUnit.SECONDS));
+		pool.shutdownNow();
+
+		// Then
+		assertThat(first).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(RuntimeException.class);
+		assertThat(second).isInstanceOf(ExecutionException.class);
+		assertThat(second.getCause()).isSameAs(first.getCause());
+		assertThat(temperatureService.currentSnapshot().version()).isEqualTo(version);
+		assertThat(temperatureService.getYearlyAverageTemperature("CityA")).containsExactly(new TemperatureResult(2022, 10.0));
+	}
+
+	private static long count(CityTemperatureAggregate aggregate) {
+		final long[] total = new long[1];
+		aggregate.forEachMonth((year, month, sum, count, min, max) -> total[0] += count);
+		return total[0];
+	}
 }
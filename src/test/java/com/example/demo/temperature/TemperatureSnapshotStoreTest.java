@@ -0,0 +1,134 @@
+package com.example.demo.temperature;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.demo.utils.filereader.ReadCheckpoint;
+
+class TemperatureSnapshotStoreTest {
+
+	@TempDir
+	private Path tempDir;
+
+	private final TemperatureSnapshotStore snapshotStore = new TemperatureSnapshotStore();
+
+	private Path snapshotFile;
+
+	@BeforeEach
+	void setUp() {
+		snapshotFile = tempDir.resolve("snapshot.bin");
+		ReflectionTestUtils.setField(snapshotStore, "snapshotFile", snapshotFile.toString());
+	}
+
+	@Test
+	void testSaveAndLoad_shouldRestoreAggregatesAndCheckpoint() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("Warszawa", 2018, 1, 1, 997);
+		aggregates.add("Warszawa", 2018, 1, 1, 3902);
+		aggregates.add("Warszawa", 2021, 1, 1, -944);
+		aggregates.add("Kraków", 2019, 1, 1, 150);
+		final var checkpoint = new ReadCheckpoint(1024, 512, 42L, true);
+
+		// When
+		snapshotStore.save(aggregates, new TemperatureAggregates(), checkpoint);
+		final var loaded = snapshotStore.load();
+
+		// Then
+		assertThat(loaded).isPresent();
+		assertThat(loaded.get().checkpoint()).isEqualTo(checkpoint);
+		assertThat(loaded.get().aggregates().cities()).containsExactlyInAnyOrder("Warszawa", "Kraków");
+		assertThat(loaded.get().aggregates().get("Warszawa").yearlyAverages()).containsExactly(
+				new TemperatureResult(2018, 24.5),
+				new TemperatureResult(2021, -9.4));
+		assertThat(loaded.get().aggregates().get("Kraków").yearlyAverages())
+				.containsExactly(new TemperatureResult(2019, 1.5));
+		assertThat(loaded.get().aggregates().get("Warszawa")
+				.rangeAverage(LocalDate.of(2018, 1, 1), LocalDate.of(2018, 1, 1)).count()).isEqualTo(2);
+	}
+
+	@Test
+	void testSaveAndLoad_shouldRestorePercentiles() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		for (int i = 0; i < 10_000; i++) {
+			aggregates.add("CityA", 2022, 1 + i % 12, 1 + i % 28, (i * 7919) % 5000 - 1000);
+		}
+		final var percentiles = List.of(1.0, 50.0, 99.0);
+
+		// When
+		snapshotStore.save(aggregates, new TemperatureAggregates(), null);
+		final var loaded = snapshotStore.load();
+
+		// Then
+		assertThat(loaded).isPresent();
+		assertThat(loaded.get().aggregates().get("CityA").yearlyPercentiles(percentiles))
+				.isEqualTo(aggregates.get("CityA").yearlyPercentiles(percentiles));
+	}
+
+	@Test
+	void testSaveAndLoad_withoutCheckpoint_shouldRestoreAggregates() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, 1550);
+
+		// When
+		snapshotStore.save(aggregates, new TemperatureAggregates(), null);
+		final var loaded = snapshotStore.load();
+
+		// Then
+		assertThat(loaded).isPresent();
+		assertThat(loaded.get().checkpoint()).isNull();
+		assertThat(loaded.get().aggregates().get("CityA").yearlyAverages())
+				.containsExactly(new TemperatureResult(2022, 15.5));
+	}
+
+	@Test
+	void testSaveAndLoad_withPushedReadings_shouldRestoreThemApart() {
+		// Given
+		final var aggregates = new TemperatureAggregates();
+		aggregates.add("CityA", 2022, 1, 1, 1550);
+		aggregates.add("PushedCity", 2023, 5, 1, 1850);
+		final var pushed = new TemperatureAggregates();
+		pushed.add("PushedCity", 2023, 5, 1, 1850);
+
+		// When
+		snapshotStore.save(aggregates, pushed, null);
+		final var loaded = snapshotStore.load();
+
+		// Then
+		assertThat(loaded).isPresent();
+		assertThat(loaded.get().aggregates().cities()).containsExactly("CityA", "PushedCity");
+		assertThat(loaded.get().pushed().cities()).containsExactly("PushedCity");
+		assertThat(loaded.get().pushed().get("PushedCity").yearlyAverages())
+				.containsExactly(new TemperatureResult(2023, 18.5));
+	}
+
+	@Test
+	void testLoad_withCorruptedFile_shouldIgnoreSnapshot() throws Exception {
+		// Given
+		Files.write(snapshotFile, new byte[] {0x54, 0x53, 0x4e, 0x50, 0, 0, 0, 3, 1, 0});
+
+		// When
+		final var loaded = snapshotStore.load();
+
+		// Then
+		assertThat(loaded).isEmpty();
+	}
+
+	@Test
+	void testLoad_withMissingFile_shouldReturnEmpty() {
+		// When
+		final var loaded = snapshotStore.load();
+
+		// Then
+		assertThat(loaded).isEmpty();
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.demo.utils.filereader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.demo.utils.parser.ColumnarBlockParser;
+
+class ColumnarFileReaderTest {
+
+	@TempDir
+	private Path tempDir;
+
+	private ColumnarFileReader fileReader;
+
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = tempDir.resolve("temperatures.tcol");
+		fileReader = new ColumnarFileReader(new DefaultResourceLoader());
+		ReflectionTestUtils.setField(fileReader, "filePath", file.toUri().toString());
+	}
+
+	@Test
+	void testConvert_shouldKeepEveryValidReading() throws IOException {
+		// Given
+		final Path csv = csv("source.csv", """
+				Warszawa;2018-09-19 05:17:32.619;9.97
+				Krakow;2019-01-01 00:00:00.000;-1.5
+				Warszawa;2018-09-20 18:44:42.468;39.02
+				Krakow;2019-01-02 00:00:00.000;999.99
+				broken line
+				""");
+
+		// When
+		final var conversion = ColumnarFileConverter.convert(csv, file);
+		final List<String> lines = new ArrayList<>();
+		fileReader.readFile(lines::add);
+
+		// Then
+		assertThat(conversion.rows()).isEqualTo(3);
+		assertThat(conversion.rejectedRows()).isEqualTo(2);
+		assertThat(lines).containsExactly(
+				"Warszawa;2018-09-19 00:00:00.000;9.97",
+				"Warszawa;2018-09-20 00:00:00.000;39.02",
+				"Krakow;2019-01-01 00:00:00.000;-1.5");
+	}
+
+	@Test
+	void testReadAppendedChunks_shouldOnlyReadNewBlocks() throws IOException {
+		// Given
+		ColumnarFileConverter.convert(csv("first.csv", "Warszawa;2018-09-19 05:17:32.619;9.97\n"), file);
+		final ReadCheckpoint checkpoint = fileReader.readChunks(chunk -> {
+		});
+		final Path appended = tempDir.resolve("appended.tcol");
+		ColumnarFileConverter.convert(csv("second.csv", "Krakow;2019-01-01 00:00:00.000;-1.5\n"), appended);
+		final byte[] blocks = Files.readAllBytes(appended);
+		Files.write(file, Arrays.copyOfRange(blocks, ColumnarBlockParser.HEADER_SIZE, blocks.length), StandardOpenOption.APPEND);
+		// A block that is still being written is left for the next refresh
+		Files.write(file, new byte[] {100, 0, 0, 0, 1}, StandardOpenOption.APPEND);
+		final List<String> cities = new ArrayList<>();
+
+		// When
+		final ReadCheckpoint next = fileReader.readAppendedChunks(checkpoint, chunk -> fileReader.chunkParser().parse(chunk,
+				(buffer, cityStart, cityEnd, year, month, day, temperature) -> cities.add(city(buffer, cityStart, cityEnd))));
+
+		// Then
+		assertThat(cities).containsExactly("Krakow");
+		assertThat(next.offset()).isEqualTo(Files.size(file) - 5);
+	}
+
+	private Path csv(String name, String content) throws IOException {
+		final Path csv = tempDir.resolve(name);
+		Files.writeString(csv, content);
+		return csv;
+	}
+
+	private static String city(ByteBuffer buffer, int from, int to) {
+		final byte[] bytes = new byte[to - from];
+		buffer.get(from, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
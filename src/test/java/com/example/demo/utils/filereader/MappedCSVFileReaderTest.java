@@ -0,0 +1,178 @@
+package com.example.demo.utils.filereader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MappedCSVFileReaderTest {
+
+	@TempDir
+	private Path tempDir;
+
+	private MappedCSVFileReader fileReader;
+
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = tempDir.resolve("temperatures.csv");
+		Files.writeString(file, """
+				Warszawa;2018-09-19 05:17:32.619;9.97
+				Warszawa;2018-09-20 18:44:42.468;39.02
+				Krakow;2019-01-01 00:00:00.000;-1.5
+				Krakow;2019-01-02 00:00:00.000;2.25
+				""");
+
+		fileReader = new MappedCSVFileReader(new DefaultResourceLoader());
+		ReflectionTestUtils.setField(fileReader, "filePath", file.toUri().toString());
+	}
+
+	@Test
+	void testReadChunks_shouldSplitFileOnLineBoundaries() throws IOException {
+		// Given
+		ReflectionTestUtils.setField(fileReader, "chunkSize", 10L);
+		final List<String> chunks = new ArrayList<>();
+
+		// When
+		fileReader.readChunks(chunk -> chunks.add(asString(chunk)));
+
+		// Then
+		assertThat(chunks).hasSize(4);
+		assertThat(chunks).allMatch(chunk -> chunk.endsWith("\n"));
+		assertThat(String.join("", chunks)).isEqualTo(Files.readString(file));
+	}
+
+	@Test
+	void testReadFile_shouldReturnAllLines() throws IOException {
+		// Given
+		final List<String> lines = new ArrayList<>();
+
+		// When
+		fileReader.readFile(lines::add);
+
+		// Then
+		assertThat(lines).containsExactly(
+				"Warszawa;2018-09-19 05:17:32.619;9.97",
+				"Warszawa;2018-09-20 18:44:42.468;39.02",
+				"Krakow;2019-01-01 00:00:00.000;-1.5",
+				"Krakow;2019-01-02 00:00:00.000;2.25");
+	}
+
+	@Test
+	void testReadChunks_withEmptyFile_shouldNotProduceChunks() throws IOException {
+		// Given
+		Files.writeString(file, "");
+		final List<Object> chunks = new ArrayList<>();
+
+		// When
+		fileReader.readChunks(chunks::add);
+
+		// Then
+		assertThat(chunks).isEmpty();
+	}
+
+	@Test
+	void testReadAppendedChunks_shouldReadOnlyAppendedLines() throws IOException {
+		// Given
+		final var checkpoint = fileReader.readChunks(chunk -> {
+		});
+		Files.writeString(file, "Krakow;2019-01-03 00:00:00.000;3.0\n", StandardOpenOption.APPEND);
+		final List<String> lines = new ArrayList<>();
+
+		// When
+		final var newCheckpoint = fileReader.readAppendedChunks(checkpoint, chunk -> lines.add(asString(chunk)));
+
+		// Then
+		assertThat(lines).containsExactly("Krakow;2019-01-03 00:00:00.000;3.0\n");
+		assertThat(newCheckpoint.offset()).isEqualTo(Files.size(file));
+		assertThat(newCheckpoint.endsWithNewline()).isTrue();
+	}
+
+	@Test
+	void testReadAppendedChunks_withLineAppendedInTwoWrites_shouldReadItOnceWhole() throws IOException {
+		// Given
+		final var checkpoint = fileReader.readChunks(chunk -> {
+		});
+		final List<String> lines = new ArrayList<>();
+
+		// When
+		Files.writeString(file, "Krakow;2019-01-03 00:00:00.000;3", StandardOpenOption.APPEND);
+		final var partialCheckpoint = fileReader.readAppendedChunks(checkpoint, chunk -> lines.add(asString(chunk)));
+		Files.writeString(file, ".5\n", StandardOpenOption.APPEND);
+		final var newCheckpoint = fileReader.readAppendedChunks(partialCheckpoint, chunk -> lines.add(asString(chunk)));
+
+		// Then
+		assertThat(lines).containsExactly("Krakow;2019-01-03 00:00:00.000;3.5\n");
+		assertThat(partialCheckpoint.offset()).isEqualTo(checkpoint.offset());
+		assertThat(partialCheckpoint.endsWithNewline()).isTrue();
+		assertThat(newCheckpoint.offset()).isEqualTo(Files.size(file));
+	}
+
+	@Test
+	void testReadAppendedChunks_withRewrittenFile_shouldRequireFullRead() throws IOException {
+		// Given
+		final var checkpoint = fileReader.readChunks(chunk -> {
+		});
+		Files.writeString(file, Files.readString(file).replace("Warszawa", "Warsaw  ") + "\n");
+		final List<Object> chunks = new ArrayList<>();
+
+		// When
+		final var newCheckpoint = fileReader.readAppendedChunks(checkpoint, chunks::add);
+
+		// Then
+		assertThat(newCheckpoint).isNull();
+		assertThat(chunks).isEmpty();
+	}
+
+	@Test
+	void testReadAppendedChunks_withTruncatedFile_shouldRequireFullRead() throws IOException {
+		// Given
+		final var checkpoint = fileReader.readChunks(chunk -> {
+		});
+		Files.writeString(file, "Warszawa;2018-09-19 05:17:32.619;9.97\n");
+
+		// When
+		final var newCheckpoint = fileReader.readAppendedChunks(checkpoint, chunk -> {
+		});
+
+		// Then
+		assertThat(newCheckpoint).isNull();
+	}
+
+	@Test
+	void testReadChunks_withUnterminatedLastLine_shouldLeaveItForTheNextRead() throws IOException {
+		// Given
+		Files.writeString(file, "Krakow;2019-01-03 00:00:00.000;1", StandardOpenOption.APPEND);
+		final List<String> fullRead = new ArrayList<>();
+		final List<String> appendedRead = new ArrayList<>();
+
+		// When
+		final var checkpoint = fileReader.readChunks(chunk -> fullRead.add(asString(chunk)));
+		Files.writeString(file, ".5\n", StandardOpenOption.APPEND);
+		final var newCheckpoint = fileReader.readAppendedChunks(checkpoint, chunk -> appendedRead.add(asString(chunk)));
+
+		// Then
+		assertThat(String.join("", fullRead)).doesNotContain("2019-01-03");
+		assertThat(checkpoint.endsWithNewline()).isTrue();
+		assertThat(appendedRead).containsExactly("Krakow;2019-01-03 00:00:00.000;1.5\n");
+		assertThat(newCheckpoint.offset()).isEqualTo(Files.size(file));
+	}
+
+	private static String asString(ByteBuffer chunk) {
+		final byte[] bytes = new byte[chunk.remaining()];
+		chunk.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
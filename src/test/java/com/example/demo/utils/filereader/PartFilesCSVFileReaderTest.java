@@ -0,0 +1,122 @@
+package com.example.demo.utils.filereader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import io.airlift.compress.zstd.ZstdOutputStream;
+
+class PartFilesCSVFileReaderTest {
+
+	private static final String PART_1 = """
+			Warszawa;2018-09-19 05:17:32.619;9.97
+			Warszawa;2018-09-20 18:44:42.468;39.02
+			""";
+
+	private static final String PART_2 = """
+			Krakow;2019-01-01 00:00:00.000;-1.5
+			""";
+
+	private static final String PART_3 = """
+			Gdansk;2020-05-05 12:00:00.000;15.0
+			Gdansk;2020-05-06 12:00:00.000;16.0""";
+
+	@TempDir
+	private Path tempDir;
+
+	private PartFilesCSVFileReader fileReader;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.writeString(tempDir.resolve("part-00000.csv"), PART_1);
+		write(new GZIPOutputStream(Files.newOutputStream(tempDir.resolve("part-00001.csv.gz"))), PART_2);
+		write(new ZstdOutputStream(Files.newOutputStream(tempDir.resolve("part-00002.csv.zst"))), PART_3);
+		Files.writeString(tempDir.resolve("_SUCCESS"), "");
+		Files.writeString(tempDir.resolve(".part-00000.csv.crc"), "crc");
+
+		fileReader = new PartFilesCSVFileReader(new DefaultResourceLoader());
+		ReflectionTestUtils.setField(fileReader, "filePath", tempDir.toUri().toString());
+	}
+
+	@Test
+	void testReadChunks_shouldDecompressAndReadAllParts() throws IOException {
+		// Given
+		final List<String> chunks = new ArrayList<>();
+
+		// When
+		fileReader.readChunks(chunk -> chunks.add(asString(chunk)));
+
+		// Then
+		assertThat(chunks).containsExactlyInAnyOrder(PART_1, PART_2, PART_3);
+	}
+
+	@Test
+	void testReadFile_shouldReturnAllLinesInPartOrder() throws IOException {
+		// Given
+		final List<String> lines = new ArrayList<>();
+
+		// When
+		fileReader.readFile(lines::add);
+
+		// Then
+		assertThat(lines).containsExactly(
+				"Warszawa;2018-09-19 05:17:32.619;9.97",
+				"Warszawa;2018-09-20 18:44:42.468;39.02",
+				"Krakow;2019-01-01 00:00:00.000;-1.5",
+				"Gdansk;2020-05-05 12:00:00.000;15.0",
+				"Gdansk;2020-05-06 12:00:00.000;16.0");
+	}
+
+	@Test
+	void testReadChunks_shouldFailWhenPartIsCorrupt() throws IOException {
+		// Given
+		final byte[] compressed = Files.readAllBytes(tempDir.resolve("part-00001.csv.gz"));
+		Files.write(tempDir.resolve("part-00001.csv.gz"), Arrays.copyOf(compressed, compressed.length / 2));
+
+		// When & Then
+		assertThatThrownBy(() -> fileReader.readChunks(chunk -> {
+		})).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void testSelect_shouldFollowFileLocation() {
+		// Given
+		final var resourceLoader = new DefaultResourceLoader();
+
+		// When & Then
+		assertThat(FileReaderSelection.select("auto", resourceLoader.getResource(tempDir.toUri().toString())))
+				.isEqualTo(FileReaderSelection.PARTS);
+		assertThat(FileReaderSelection.select("auto", resourceLoader.getResource(tempDir.resolve("part-00001.csv.gz").toUri().toString())))
+				.isEqualTo(FileReaderSelection.COMPRESSED);
+		assertThat(FileReaderSelection.select("auto", resourceLoader.getResource(tempDir.resolve("part-00000.csv").toUri().toString())))
+				.isEqualTo(FileReaderSelection.MAPPED);
+		assertThat(FileReaderSelection.select("buffered", resourceLoader.getResource(tempDir.toUri().toString())))
+				.isEqualTo(FileReaderSelection.BUFFERED);
+		assertThatThrownBy(() -> FileReaderSelection.select("zip", resourceLoader.getResource(tempDir.toUri().toString())))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static void write(OutputStream outputStream, String content) throws IOException {
+		try (outputStream) {
+			outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static String asString(ByteBuffer chunk) {
+		return StandardCharsets.UTF_8.decode(chunk).toString();
+	}
+}
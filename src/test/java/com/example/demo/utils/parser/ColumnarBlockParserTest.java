@@ -0,0 +1,25 @@
+package com.example.demo.utils.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ColumnarBlockParserTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {"1970-01-01", "1969-12-31", "2000-02-29", "2023-03-01", "2024-12-31", "1600-03-01", "0001-01-01"})
+	void testYearMonthDay_shouldMatchLocalDate(String date) {
+		// Given
+		final LocalDate localDate = LocalDate.parse(date);
+
+		// When
+		final int yearMonthDay = ColumnarBlockParser.yearMonthDay(localDate.toEpochDay());
+
+		// Then
+		assertThat(yearMonthDay >> 9).isEqualTo(localDate.getYear());
+		assertThat(yearMonthDay >> 5 & 0xf).isEqualTo(localDate.getMonthValue());
+		assertThat(yearMonthDay & 0x1f).isEqualTo(localDate.getDayOfMonth());
+	}
+}
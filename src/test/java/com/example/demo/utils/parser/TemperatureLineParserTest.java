@@ -0,0 +1,118 @@
+package com.example.demo.utils.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TemperatureLineParserTest {
+
+	private final List<String> records = new ArrayList<>();
+
+	private final TemperatureRecordHandler handler = (buffer, cityStart, cityEnd, year, month, day, hundredths) -> {
+		final byte[] city = new byte[cityEnd - cityStart];
+		buffer.get(cityStart, city);
+		records.add(new String(city, StandardCharsets.UTF_8) + "|" + year + "-" + month + "-" + day + "|" + hundredths);
+	};
+
+	@Test
+	void testParseChunk_shouldParseAllLinesAndCountRejected() {
+		// Given
+		final var chunk = bufferOf("""
+				Warszawa;2018-09-19 05:17:32.619;9.97
+				Kraków;2020-02-30 23:59:59.999;-9.4\r
+
+				Warszawa;InvalidTimestamp;InvalidTemperature
+				Gdańsk;2021-12-31 00:00:00.000;15""");
+
+		// When
+		final ParsedChunk parsed = TemperatureLineParser.parseChunk(chunk, handler);
+
+		// Then
+		assertThat(parsed).isEqualTo(new ParsedChunk(3, 1));
+		assertThat(records).containsExactly(
+				"Warszawa|2018-9-19|997",
+				"Kraków|2020-2-29|-940",
+				"Gdańsk|2021-12-31|1500");
+	}
+
+	@Test
+	void testParseChunk_shouldSkipCitiesTheHandlerDoesNotAccept() {
+		// Given
+		final var chunk = bufferOf("""
+				Warszawa;2018-09-19 05:17:32.619;9.97
+				Kraków;InvalidTimestamp;InvalidTemperature
+				Gdańsk;2021-12-31 00:00:00.000;15""");
+		final TemperatureRecordHandler skippingKrakow = new TemperatureRecordHandler() {
+
+			@Override
+			public void accept(ByteBuffer buffer, int cityStart, int cityEnd, int year, int month, int day,
+					int temperatureHundredths) {
+				handler.accept(buffer, cityStart, cityEnd, year, month, day, temperatureHundredths);
+			}
+
+			@Override
+			public boolean acceptsCity(ByteBuffer buffer, int cityStart, int cityEnd) {
+				return buffer.get(cityStart) != 'K';
+			}
+		};
+
+		// When
+		final ParsedChunk parsed = TemperatureLineParser.parseChunk(chunk, skippingKrakow);
+
+		// Then
+		assertThat(parsed).isEqualTo(new ParsedChunk(3, 0));
+		assertThat(records).containsExactly("Warszawa|2018-9-19|997", "Gdańsk|2021-12-31|1500");
+	}
+
+	@ParameterizedTest
+	@CsvSource({"9.97,997", "-9.44,-944", "0.5,50", "+3,300", ".25,25", "1.005,101", "-1.004,-100"})
+	void testParseLine_shouldReadTemperatureAsHundredths(String temperature, int expected) {
+		// When
+		final boolean parsed = parse("City;2022-01-01 00:00:00.000;" + temperature);
+
+		// Then
+		assertThat(parsed).isTrue();
+		assertThat(records).containsExactly("City|2022-1-1|" + expected);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			";2022-01-01 00:00:00.000;1.0",
+			"City;2022-01-01 00:00:00.000",
+			"City;2022-01-01 00:00:00.000;",
+			"City;2022-13-01 00:00:00.000;1.0",
+			"City;2022-01-32 00:00:00.000;1.0",
+			"City;2022-01-01 24:00:00.000;1.0",
+			"City;2022/01/01 00:00:00.000;1.0",
+			"City;2022-01-01 00:00:00;1.0",
+			"City;2022-01-01 00:00:00.000;1.0.0",
+			"City;2022-01-01 00:00:00.000;abc",
+			"City;2022-01-01 00:00:00.000;-",
+			"City;2022-01-01 00:00:00.000;12345678"
+	})
+	void testParseLine_withMalformedLine_shouldReject(String line) {
+		// When
+		final boolean parsed = parse(line);
+
+		// Then
+		assertThat(parsed).isFalse();
+		assertThat(records).isEmpty();
+	}
+
+	private boolean parse(String line) {
+		final var buffer = bufferOf(line);
+		return TemperatureLineParser.parseLine(buffer, 0, buffer.limit(), handler);
+	}
+
+	private static ByteBuffer bufferOf(String content) {
+		return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+	}
+}